@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * a class that runs the benchmarks with the allocation profiler and writes the results as JSON.
+ * <p>
+ * every JMH command line option is accepted and overrides the defaults, such as {@code -t 4} to run with four
+ * threads, or {@code -rff baselines/1.0.0.json} to write a new baseline.
+ */
+public final class BenchmarkRunner {
+
+  /**
+   * ctor.
+   */
+  private BenchmarkRunner() {
+  }
+
+  /**
+   * runs the benchmarks.
+   *
+   * @param args the args to run.
+   *
+   * @throws RunnerException if the benchmarks fail.
+   * @throws CommandLineOptionException if the args are not valid.
+   */
+  public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+    final var commandLine = new CommandLineOptions(args);
+    final var options = new OptionsBuilder()
+      .parent(commandLine)
+      .addProfiler(GCProfiler.class);
+    if (commandLine.getIncludes().isEmpty()) {
+      options.include(BenchmarkRunner.class.getPackageName() + ".*");
+    }
+    if (!commandLine.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLine.getResult().hasValue()) {
+      options.result("baselines/current.json");
+    }
+    new Runner(options.build()).run();
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable.benchmarks;
+
+import io.github.portlek.replaceable.RpList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that benchmarks {@link RpList}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RpListBenchmark {
+
+  /**
+   * the count of the lines.
+   */
+  @Param({"10", "40"})
+  public int size;
+
+  /**
+   * the count of the registered placeholders.
+   */
+  @Param({"4", "10"})
+  public int placeholders;
+
+  /**
+   * the ratio of the lines that contain placeholders.
+   */
+  @Param({"0.25", "1.0"})
+  public double hitRatio;
+
+  /**
+   * the compiled instance.
+   */
+  private RpList compiled;
+
+  /**
+   * the lines.
+   */
+  private List<String> lines;
+
+  /**
+   * the instance that is not compiled.
+   */
+  private RpList plain;
+
+  /**
+   * the replaces of a build.
+   */
+  private Map<String, Supplier<String>> replaces;
+
+  /**
+   * prepares the instances.
+   */
+  @Setup
+  public void setup() {
+    final var dynamic = (int) Math.round(this.size * this.hitRatio);
+    this.lines = new ArrayList<>(this.size);
+    for (var index = 0; index < this.size; index++) {
+      this.lines.add(index < dynamic
+        ? Templates.text(48, this.placeholders, 1.0)
+        : Templates.text(48, 0, 0.0));
+    }
+    this.replaces = Templates.replaces(this.placeholders);
+    this.plain = RpList.from(this.lines).regex(Templates.keys(this.placeholders));
+    this.compiled = RpList.from(this.lines).regex(Templates.keys(this.placeholders)).compile();
+  }
+
+  /**
+   * benchmarks {@link RpList#build(Map)}.
+   *
+   * @return built value.
+   */
+  @Benchmark
+  public List<String> build() {
+    return this.plain.build(this.replaces);
+  }
+
+  /**
+   * benchmarks {@link RpList#build(Map)} of a compiled instance.
+   *
+   * @return built value.
+   */
+  @Benchmark
+  public List<String> buildCompiled() {
+    return this.compiled.build(this.replaces);
+  }
+
+  /**
+   * benchmarks {@link RpList#buildMap(java.util.function.Function, Map)}.
+   *
+   * @return built value.
+   */
+  @Benchmark
+  public int buildMap() {
+    return this.compiled.buildMap(List::size, this.replaces);
+  }
+
+  /**
+   * benchmarks {@link RpList#value(Object)}.
+   *
+   * @return derived instance.
+   */
+  @Benchmark
+  public RpList value() {
+    return this.plain.value(this.lines);
+  }
+}
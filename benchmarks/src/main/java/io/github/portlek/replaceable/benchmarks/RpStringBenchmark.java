@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable.benchmarks;
+
+import io.github.portlek.replaceable.RpFrozen;
+import io.github.portlek.replaceable.RpString;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * a class that benchmarks {@link RpString}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RpStringBenchmark {
+
+  /**
+   * the length of the template.
+   */
+  @Param({"64", "400"})
+  public int length;
+
+  /**
+   * the count of the registered placeholders.
+   */
+  @Param({"1", "8", "32"})
+  public int placeholders;
+
+  /**
+   * the ratio of the registered placeholders that occur in the template.
+   */
+  @Param({"0.25", "1.0"})
+  public double hitRatio;
+
+  /**
+   * the compiled instance.
+   */
+  private RpString compiled;
+
+  /**
+   * the frozen snapshot.
+   */
+  private RpFrozen<String> frozen;
+
+  /**
+   * the instance that is not compiled.
+   */
+  private RpString plain;
+
+  /**
+   * the replaces of a build.
+   */
+  private Map<String, Supplier<String>> replaces;
+
+  /**
+   * the text.
+   */
+  private String text;
+
+  /**
+   * prepares the instances.
+   */
+  @Setup
+  public void setup() {
+    this.text = Templates.text(this.length, this.placeholders, this.hitRatio);
+    this.replaces = Templates.replaces(this.placeholders);
+    this.plain = RpString.from(this.text).regex(Templates.keys(this.placeholders));
+    this.compiled = RpString.from(this.text).regex(Templates.keys(this.placeholders)).compile();
+    this.frozen = this.compiled.freeze();
+  }
+
+  /**
+   * benchmarks {@link RpString#build(Map)}.
+   *
+   * @return built value.
+   */
+  @Benchmark
+  public String build() {
+    return this.plain.build(this.replaces);
+  }
+
+  /**
+   * benchmarks {@link RpString#build(Map)} of a compiled instance.
+   *
+   * @return built value.
+   */
+  @Benchmark
+  public String buildCompiled() {
+    return this.compiled.build(this.replaces);
+  }
+
+  /**
+   * benchmarks {@link RpFrozen#build(Map)}.
+   *
+   * @return built value.
+   */
+  @Benchmark
+  public String buildFrozen() {
+    return this.frozen.build(this.replaces);
+  }
+
+  /**
+   * benchmarks {@link RpString#buildMap(java.util.function.Function, Map)}.
+   *
+   * @return built value.
+   */
+  @Benchmark
+  public int buildMap() {
+    return this.compiled.buildMap(String::length, this.replaces);
+  }
+
+  /**
+   * benchmarks {@link RpString#value(Object)}.
+   *
+   * @return derived instance.
+   */
+  @Benchmark
+  public RpString value() {
+    return this.plain.value(this.text);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * a class that contains utility methods to generate benchmark templates.
+ */
+final class Templates {
+
+  /**
+   * the filler text.
+   */
+  private static final String FILLER = "the quick brown fox jumps over the lazy dog ";
+
+  /**
+   * ctor.
+   */
+  private Templates() {
+  }
+
+  /**
+   * creates the placeholder key of the given index.
+   *
+   * @param index the index to create.
+   *
+   * @return key.
+   */
+  static String key(final int index) {
+    return "%key" + index + '%';
+  }
+
+  /**
+   * creates a replaces map for the given placeholder count.
+   *
+   * @param placeholders the placeholders to create.
+   *
+   * @return replaces.
+   */
+  static Map<String, Supplier<String>> replaces(final int placeholders) {
+    final var replaces = new LinkedHashMap<String, Supplier<String>>();
+    for (var index = 0; index < placeholders; index++) {
+      final var value = "value-" + index;
+      replaces.put(Templates.key(index), () -> value);
+    }
+    return replaces;
+  }
+
+  /**
+   * creates an array of every placeholder key.
+   *
+   * @param placeholders the placeholders to create.
+   *
+   * @return keys.
+   */
+  static String[] keys(final int placeholders) {
+    final var keys = new String[placeholders];
+    for (var index = 0; index < placeholders; index++) {
+      keys[index] = Templates.key(index);
+    }
+    return keys;
+  }
+
+  /**
+   * creates a text of about the given length that contains the given ratio of the placeholders.
+   *
+   * @param length the length to create.
+   * @param placeholders the placeholder count to create.
+   * @param hitRatio the ratio of the placeholders that occur in the text.
+   *
+   * @return text.
+   */
+  static String text(final int length, final int placeholders, final double hitRatio) {
+    final var hits = (int) Math.round(placeholders * hitRatio);
+    final var builder = new StringBuilder(length + 16);
+    final var gap = Math.max(1, length / (hits + 1));
+    var filler = 0;
+    for (var index = 0; index < hits; index++) {
+      for (var count = 0; count < gap - Templates.key(index).length(); count++) {
+        builder.append(Templates.FILLER.charAt(filler++ % Templates.FILLER.length()));
+      }
+      builder.append(Templates.key(index));
+    }
+    while (builder.length() < length) {
+      builder.append(Templates.FILLER.charAt(filler++ % Templates.FILLER.length()));
+    }
+    return builder.toString();
+  }
+}
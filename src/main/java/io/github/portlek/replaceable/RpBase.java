@@ -25,26 +25,43 @@
 
 package io.github.portlek.replaceable;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * an abstract class of replaceable objects.
+ * <p>
+ * the keys of {@link #replaces} and {@link #regex} are replaced in a single pass, every occurrence in the value is
+ * replaced once and the replacement values are inserted as they are. a key that occurs in a replacement value is
+ * not replaced, unlike the earlier versions that replaced {@link #replaces} first and {@link #regex} in the result,
+ * so a value of {@link #replaces} that contains a key of {@link #regex} was expanded. call {@link #nested(int)}
+ * with {@code 1} to expand the keys in the replacement values.
  *
  * @param <S> type of the implementation itself.
  * @param <X> type of the value.
@@ -58,22 +75,87 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
    * the maps.
    */
   @NotNull
-  @Getter
-  private final Collection<UnaryOperator<X>> maps = new ArrayList<>();
+  private List<UnaryOperator<X>> maps = new ArrayList<>();
 
   /**
    * the regex.
    */
   @NotNull
-  @Getter
-  private final Collection<String> regex = new ArrayList<>();
+  private List<String> regex = new ArrayList<>();
 
   /**
    * the replaces.
    */
   @NotNull
+  private Map<String, Supplier<String>> replaces = new LinkedHashMap<>();
+
+  /**
+   * the live view of {@link #maps}.
+   */
+  @NotNull
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private final Collection<UnaryOperator<X>> mapsView = new RpLiveList<>(() -> this.maps, () -> {
+    this.detach();
+    return this.maps;
+  }, this::invalidate);
+
+  /**
+   * the live view of {@link #regex}.
+   */
+  @NotNull
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private final Collection<String> regexView = new RpLiveList<>(() -> this.regex, () -> {
+    this.detach();
+    return this.regex;
+  }, this::rekey);
+
+  /**
+   * the live view of {@link #replaces}.
+   */
+  @NotNull
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private final Map<String, Supplier<String>> replacesView = new RpLiveMap<>(() -> this.replaces, () -> {
+    this.detach();
+    return this.replaces;
+  }, this::rekey);
+
+  /**
+   * the regular expression rewrites that are applied to the mapped value before the keys are replaced.
+   */
+  @NotNull
+  private List<RpPattern> patterns = new ArrayList<>();
+
+  /**
+   * the escapes of the inserted values, by key.
+   */
+  @NotNull
+  private Map<String, RpEscape> escapes = new HashMap<>();
+
+  /**
+   * the escape of the inserted values whose keys are not in {@link #escapes}.
+   */
+  @Nullable
+  @Getter
+  private RpEscape escape;
+
+  /**
+   * the maximum depth of the placeholders that are resolved in the replacement values, {@code 0} to not resolve them.
+   */
   @Getter
-  private final Map<String, Supplier<String>> replaces = new HashMap<>();
+  private int nesting;
+
+  /**
+   * whether {@link #maps}, {@link #patterns}, {@link #escapes}, {@link #regex} and {@link #replaces} are immutable and
+   * shared.
+   * <p>
+   * a shared instance copies them before it changes them, so deriving by {@link #value(Object)} does not copy them.
+   */
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private boolean shared;
 
   /**
    * the value.
@@ -82,6 +164,68 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
   @Getter
   private final X value;
 
+  /**
+   * the batch size from which {@link #buildAll(List)} builds in parallel.
+   */
+  @Getter
+  private int batchThreshold = 256;
+
+  /**
+   * the size of the memo, {@code 0} if built values are not memoized.
+   */
+  @Getter
+  private int memoSize;
+
+  /**
+   * the built values, keyed by the resolved replacement values.
+   */
+  @Nullable
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile RpMemo<X> memo;
+
+  /**
+   * the id of the template that is reported to {@link #listener}.
+   */
+  @Nullable
+  @Getter
+  private String id;
+
+  /**
+   * the listener that observes the builds.
+   */
+  @Nullable
+  @Getter
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private RpListener listener;
+
+  /**
+   * the compiled template.
+   * <p>
+   * it is dropped whenever {@link #maps}, {@link #regex} or {@link #replaces} change.
+   */
+  @Nullable
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile RpTemplate template;
+
+  /**
+   * the value after the leading {@link RpPure} maps, kept by {@link #compile()}.
+   */
+  @Nullable
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile X premapped;
+
+  /**
+   * the matcher that finds every key of {@link #replaces} and {@link #regex} in a single scan.
+   */
+  @Nullable
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile RpMatcher matcher;
+
   /**
    * builds the replaceable object with the given entries.
    *
@@ -135,6 +279,9 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
 
   /**
    * builds the replaceable object with the given replaces.
+   * <p>
+   * the keys are replaced in a single pass, the keys in the replacement values are replaced only if
+   * {@link #nested(int)} is set.
    *
    * @param replaces the replaces to build.
    *
@@ -142,17 +289,265 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
    */
   @NotNull
   public final X build(@NotNull final Map<String, Supplier<String>> replaces) {
-    final var value = new AtomicReference<>(this.value);
-    this.maps.stream()
-      .map(operator -> operator.apply(value.get()))
-      .forEach(value::set);
-    this.replaces.forEach((regex, supplier) ->
-      value.set(this.replace(value.get(), regex, supplier.get())));
-    this.regex.stream()
-      .filter(replaces::containsKey)
-      .forEach(regex ->
-        value.set(this.replace(value.get(), regex, replaces.get(regex).get())));
-    return value.get();
+    final var listener = this.listener;
+    if (listener == null) {
+      final var template = this.template();
+      return this.render(template, template.resolve(this.replaces, replaces));
+    }
+    final var start = System.nanoTime();
+    final var compiled = this.template;
+    final var template = this.template();
+    final var built = this.render(template, template.resolve(this.replaces, replaces, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, this.layout().size(built), this.passes(compiled, template));
+    return built;
+  }
+
+  /**
+   * builds the replaceable object with the given context.
+   * <p>
+   * the values are resolved by slot, so no map is created or hashed.
+   *
+   * @param context the context to build.
+   *
+   * @return built value.
+   *
+   * @throws IllegalArgumentException if the context was created before the keys of the instance were changed.
+   */
+  @NotNull
+  public final X build(@NotNull final RpContext context) {
+    final var listener = this.listener;
+    if (listener == null) {
+      final var template = this.template();
+      return this.render(template, template.resolve(context, null, null));
+    }
+    final var start = System.nanoTime();
+    final var compiled = this.template;
+    final var template = this.template();
+    final var built = this.render(template, template.resolve(context, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, this.layout().size(built), this.passes(compiled, template));
+    return built;
+  }
+
+  /**
+   * builds the replaceable object with the given replaces asynchronously.
+   * <p>
+   * every supplier runs concurrently on the given executor and the value is rendered once all of them are done, so
+   * the build takes as long as the slowest supplier. wrap a supplier into {@link RpFallback} to bound it by a timeout.
+   *
+   * @param replaces the replaces to build.
+   * @param executor the executor to run the suppliers.
+   *
+   * @return a future of built value, completed exceptionally if a supplier without a fallback throws.
+   */
+  @NotNull
+  public final CompletableFuture<X> buildAsync(@NotNull final Map<String, Supplier<String>> replaces,
+                                               @NotNull final Executor executor) {
+    final var listener = this.listener;
+    final var start = listener == null ? 0L : System.nanoTime();
+    final var compiled = this.template;
+    final var template = this.template();
+    final var passes = this.passes(compiled, template);
+    return template.resolveAsync(this.replaces, replaces, executor, listener, this.id).thenApply(values -> {
+      final var built = this.render(template, values);
+      if (listener != null) {
+        listener.onBuild(this.id, System.nanoTime() - start, this.layout().size(built), passes);
+      }
+      return built;
+    });
+  }
+
+  /**
+   * builds the replaceable object with the given replaces straight into the given sink.
+   * <p>
+   * literal segments and replacement values are written one by one, so the built value is never materialized.
+   * the parts of a multi-part value, such as the lines of {@link RpList}, are separated by a line feed.
+   *
+   * @param sink the sink to write.
+   * @param replaces the replaces to build.
+   * @param <A> type of the sink.
+   *
+   * @return the sink.
+   *
+   * @throws IOException if the sink throws an I/O error.
+   */
+  @NotNull
+  public final <A extends Appendable> A buildTo(@NotNull final A sink,
+                                                @NotNull final Map<String, Supplier<String>> replaces)
+    throws IOException {
+    return this.buildTo(sink, "\n", replaces);
+  }
+
+  /**
+   * builds the replaceable object with the given replaces straight into the given sink.
+   * <p>
+   * literal segments and replacement values are written one by one, so the built value is never materialized.
+   *
+   * @param sink the sink to write.
+   * @param separator the separator to write between the parts of a multi-part value, such as lines.
+   * @param replaces the replaces to build.
+   * @param <A> type of the sink.
+   *
+   * @return the sink.
+   *
+   * @throws IOException if the sink throws an I/O error.
+   */
+  @NotNull
+  public final <A extends Appendable> A buildTo(@NotNull final A sink, @NotNull final CharSequence separator,
+                                                @NotNull final Map<String, Supplier<String>> replaces)
+    throws IOException {
+    final var listener = this.listener;
+    if (listener == null) {
+      final var template = this.template();
+      template.renderTo(sink, separator, template.resolve(this.replaces, replaces));
+      return sink;
+    }
+    final var start = System.nanoTime();
+    final var compiled = this.template;
+    final var template = this.template();
+    final var counter = new RpCounter(sink);
+    template.renderTo(counter, separator, template.resolve(this.replaces, replaces, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, counter.count(), this.passes(compiled, template));
+    return sink;
+  }
+
+  /**
+   * builds the replaceable object with the given replaces into the given buffer as UTF-8.
+   * <p>
+   * the literal text is encoded once per compiled template, only the replacement values are encoded on every build.
+   * the parts of a multi-part value, such as the lines of {@link RpList}, are separated by a line feed.
+   *
+   * @param buffer the buffer to write, heap or direct.
+   * @param replaces the replaces to build.
+   *
+   * @return the buffer.
+   *
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space, nothing is written then.
+   */
+  @NotNull
+  public final ByteBuffer buildTo(@NotNull final ByteBuffer buffer,
+                                  @NotNull final Map<String, Supplier<String>> replaces) {
+    return this.buildTo(buffer, "\n", replaces);
+  }
+
+  /**
+   * builds the replaceable object with the given replaces into the given buffer as UTF-8.
+   *
+   * @param buffer the buffer to write, heap or direct.
+   * @param separator the separator to write between the parts of a multi-part value, such as lines.
+   * @param replaces the replaces to build.
+   *
+   * @return the buffer.
+   *
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space, nothing is written then.
+   */
+  @NotNull
+  public final ByteBuffer buildTo(@NotNull final ByteBuffer buffer, @NotNull final CharSequence separator,
+                                  @NotNull final Map<String, Supplier<String>> replaces) {
+    final var listener = this.listener;
+    if (listener == null) {
+      final var template = this.template();
+      template.encodeTo(buffer, separator, template.resolve(this.replaces, replaces));
+      return buffer;
+    }
+    final var start = System.nanoTime();
+    final var position = buffer.position();
+    final var compiled = this.template;
+    final var template = this.template();
+    template.encodeTo(buffer, separator, template.resolve(this.replaces, replaces, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, buffer.position() - position,
+      this.passes(compiled, template));
+    return buffer;
+  }
+
+  /**
+   * builds the replaceable object with the given replaces into the given channel as UTF-8.
+   * <p>
+   * the parts of a multi-part value, such as the lines of {@link RpList}, are separated by a line feed.
+   *
+   * @param channel the channel to write.
+   * @param replaces the replaces to build.
+   *
+   * @return written byte count.
+   *
+   * @throws IOException if the channel throws an I/O error.
+   */
+  public final int buildTo(@NotNull final WritableByteChannel channel,
+                           @NotNull final Map<String, Supplier<String>> replaces) throws IOException {
+    return this.buildTo(channel, "\n", replaces);
+  }
+
+  /**
+   * builds the replaceable object with the given replaces into the given channel as UTF-8.
+   *
+   * @param channel the channel to write.
+   * @param separator the separator to write between the parts of a multi-part value, such as lines.
+   * @param replaces the replaces to build.
+   *
+   * @return written byte count.
+   *
+   * @throws IOException if the channel throws an I/O error.
+   */
+  public final int buildTo(@NotNull final WritableByteChannel channel, @NotNull final CharSequence separator,
+                           @NotNull final Map<String, Supplier<String>> replaces) throws IOException {
+    final var listener = this.listener;
+    if (listener == null) {
+      final var template = this.template();
+      return template.encodeTo(channel, separator, template.resolve(this.replaces, replaces));
+    }
+    final var start = System.nanoTime();
+    final var compiled = this.template;
+    final var template = this.template();
+    final var written = template.encodeTo(channel, separator,
+      template.resolve(this.replaces, replaces, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, written, this.passes(compiled, template));
+    return written;
+  }
+
+  /**
+   * builds the replaceable object once per given replaces.
+   * <p>
+   * the template is parsed once for the whole batch. if the batch has at least {@link #batchThreshold}
+   * elements, it's split over {@link java.util.concurrent.ForkJoinPool#commonPool()}, so the suppliers need to be
+   * thread-safe.
+   *
+   * @param replaces the replaces to build.
+   *
+   * @return built values, in the order of the given replaces.
+   */
+  @NotNull
+  public final List<X> buildAll(@NotNull final List<Map<String, Supplier<String>>> replaces) {
+    return this.freeze().buildAll(replaces);
+  }
+
+  /**
+   * builds the replaceable object once per given replaces.
+   * <p>
+   * the template is parsed once for the whole batch. if the batch has at least {@link #batchThreshold}
+   * elements, it's split into chunks that run on the given executor, so the suppliers need to be thread-safe.
+   *
+   * @param replaces the replaces to build.
+   * @param executor the executor to run the chunks.
+   *
+   * @return built values, in the order of the given replaces.
+   */
+  @NotNull
+  public final List<X> buildAll(@NotNull final List<Map<String, Supplier<String>>> replaces,
+                                @NotNull final Executor executor) {
+    return this.freeze().buildAll(replaces, executor);
+  }
+
+  /**
+   * builds the replaceable object once per given replaces, lazily.
+   * <p>
+   * the template is parsed once for the whole stream, a parallel stream builds in parallel.
+   *
+   * @param replaces the replaces to build.
+   *
+   * @return a stream of built values.
+   */
+  @NotNull
+  public final Stream<X> buildAll(@NotNull final Stream<Map<String, Supplier<String>>> replaces) {
+    return this.freeze().buildAll(replaces);
   }
 
   /**
@@ -199,6 +594,228 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
     return function.apply(this.build());
   }
 
+  /**
+   * compiles {@link #value} into literal and placeholder segments.
+   * <p>
+   * the value is parsed once, so {@link #build(Map)} only renders every part in a single pass into a presized
+   * buffer. the leading {@link RpPure} maps are applied once as well, if the instance has any other map, the
+   * mapped value is still parsed on every build. the replaces marked by {@link RpValue#ofConstant(Supplier)} are
+   * inlined into the template. changing {@link #maps}, {@link #regex} or {@link #replaces} afterwards drops the
+   * compiled template.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public final S compile() {
+    final var premapped = this.premapped();
+    this.template = this.configure(RpTemplate.compile(this.parts(premapped), this.matcher(), this.replaces.size()))
+      .fold(this.replaces);
+    this.premapped = premapped;
+    return this.self();
+  }
+
+  /**
+   * compiles {@link #value} into literal and placeholder segments through the given cache.
+   * <p>
+   * instances with the same value, {@link #replaces} keys and {@link #regex} share one compiled template, so
+   * compiling a repeated message is a lookup.
+   *
+   * @param cache the cache to look up.
+   *
+   * @return {@code this} for builder chain.
+   *
+   * @see #compile()
+   */
+  @NotNull
+  public final S compile(@NotNull final RpCache cache) {
+    final var premapped = this.premapped();
+    final var template = cache.template(this.parts(premapped), this.keys(), this.replaces.size());
+    this.matcher = template.matcher();
+    this.template = this.configure(template).fold(this.replaces);
+    this.premapped = premapped;
+    return this.self();
+  }
+
+  /**
+   * compiles the instance with the given template that was parsed before, such as by {@link RpMappedBundle}.
+   * <p>
+   * the template is used only if it was parsed with the same keys and the instance has no maps nor patterns,
+   * otherwise the instance is compiled by {@link #compile()}.
+   *
+   * @param template the template to compile.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  final S compile(@NotNull final RpTemplate template) {
+    if (!this.maps.isEmpty() || !this.patterns.isEmpty() || template.fixed() != this.replaces.size()
+      || !Arrays.equals(template.keys(), this.keys().toArray())) {
+      return this.compile();
+    }
+    this.matcher = template.matcher();
+    this.template = this.configure(template).fold(this.replaces);
+    this.premapped = this.value;
+    return this.self();
+  }
+
+  /**
+   * checks if the instance is compiled.
+   *
+   * @return {@code true} if {@link #compile()} was called after the last change.
+   */
+  public final boolean isCompiled() {
+    return this.template != null;
+  }
+
+  /**
+   * creates a stateful render that rebuilds only the parts whose values changed since its previous render.
+   * <p>
+   * the maps are applied and the template is parsed once, when the render is created.
+   *
+   * @return a newly created incremental render.
+   */
+  @NotNull
+  public final RpIncremental<X> incremental() {
+    return new RpIncremental<>(this.template(), this.layout(), this.replaces);
+  }
+
+  /**
+   * creates a publisher that samples the replaces of the instance periodically and emits the built value on change.
+   *
+   * @param period the delay between two samples.
+   * @param scheduler the scheduler to sample.
+   *
+   * @return a newly created and started publisher.
+   */
+  @NotNull
+  public final RpPublisher<X> publish(@NotNull final Duration period,
+                                      @NotNull final ScheduledExecutorService scheduler) {
+    return this.publish(Collections.emptyMap(), period, scheduler);
+  }
+
+  /**
+   * creates a publisher that samples the given replaces periodically and emits the built value on change.
+   *
+   * @param replaces the replaces to sample.
+   * @param period the delay between two samples.
+   * @param scheduler the scheduler to sample.
+   *
+   * @return a newly created and started publisher.
+   */
+  @NotNull
+  public final RpPublisher<X> publish(@NotNull final Map<String, Supplier<String>> replaces,
+                                      @NotNull final Duration period,
+                                      @NotNull final ScheduledExecutorService scheduler) {
+    return RpPublisher.start(this.incremental(), replaces, period, scheduler);
+  }
+
+  /**
+   * creates a reusable context to build with.
+   * <p>
+   * the context is bound to the current keys, replaces and escapes. it has to be created again after a key is added
+   * by {@link #regex(String...)} or {@link #replace(String, Supplier)}, a supplier of the instance is replaced or an
+   * escape is changed by {@link #escape(RpEscape)}. changing the maps, the patterns or the nesting keeps it valid.
+   *
+   * @return a newly created context.
+   */
+  @NotNull
+  public final RpContext context() {
+    final var matcher = this.matcher();
+    return RpContext.of(matcher.keys(), this.replaces.size(), this.replaces, this.escapes(matcher));
+  }
+
+  /**
+   * obtains the slot of the given key to set on {@link #context()}.
+   *
+   * @param key the key to obtain.
+   *
+   * @return slot, {@code -1} if the key is not in {@link #replaces} nor in {@link #regex}.
+   */
+  public final int slot(@NotNull final String key) {
+    return this.matcher().slot(key);
+  }
+
+  /**
+   * creates an immutable snapshot of the current state.
+   * <p>
+   * the snapshot keeps its own copy of {@link #maps} and {@link #replaces}, so changing this instance does not
+   * affect it, and its build methods are safe to call from any thread without locking.
+   *
+   * @return a newly created frozen snapshot.
+   */
+  @NotNull
+  public final RpFrozen<X> freeze() {
+    final var template = this.template;
+    final var matcher = this.matcher();
+    final var escapes = this.escapes(matcher);
+    return new RpFrozen<>(this.value, this.maps, this.patterns, this.replaces, this.regex, matcher, escapes,
+      this.nesting, template == null && RpPure.prefix(this.maps) == this.maps.size()
+        ? this.configure(RpTemplate.compile(this.parts(this.premapped()), matcher, this.replaces.size()))
+          .fold(this.replaces)
+        : template, this.layout(), this.batchThreshold, this.memoSize, this.id, this.listener);
+  }
+
+  /**
+   * sets the id of the template that is reported to {@link #listener}.
+   *
+   * @param id the id to set.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public final S id(@Nullable final String id) {
+    this.id = id;
+    return this.self();
+  }
+
+  /**
+   * sets the listener that observes the builds.
+   * <p>
+   * the listener is told about every build, including {@link #buildAsync(Map, Executor)} and the builds into a sink,
+   * and every supplier call in it, with their durations.
+   *
+   * @param listener the listener to set, {@code null} to stop observing.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public final S listener(@Nullable final RpListener listener) {
+    this.listener = listener;
+    return this.self();
+  }
+
+  /**
+   * enables memoization of the built values.
+   * <p>
+   * after the suppliers run, the resolved replacement values are looked up in a least recently used cache of the
+   * given size, on a hit the stored value is returned without rendering. the stored values are shared between
+   * builds, so {@link RpList} returns unmodifiable lists while memoization is enabled.
+   * changing {@link #maps}, {@link #regex} or {@link #replaces} clears the memo.
+   *
+   * @param memoSize the memo size to set, {@code 0} disables memoization.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public final S memoize(final int memoSize) {
+    this.memoSize = memoSize;
+    this.memo = null;
+    return this.self();
+  }
+
+  /**
+   * sets the batch size from which {@link #buildAll(List)} and {@link #buildAll(List, Executor)} build in parallel.
+   *
+   * @param batchThreshold the batch threshold to set.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public final S batchThreshold(final int batchThreshold) {
+    this.batchThreshold = batchThreshold;
+    return this.self();
+  }
+
   /**
    * adds the given map to {@link #maps}.
    *
@@ -208,7 +825,9 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
    */
   @NotNull
   public final S map(@NotNull final Collection<UnaryOperator<X>> map) {
+    this.detach();
     this.maps.addAll(map);
+    this.invalidate();
     return this.self();
   }
 
@@ -225,6 +844,107 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
     return this.map(List.of(maps));
   }
 
+  /**
+   * adds a regular expression rewrite that is applied to the value before the keys are replaced.
+   * <p>
+   * the pattern is compiled once, the rewrites run after {@link #maps} in the order they're added, through one
+   * {@link java.util.regex.Matcher}. a compiled instance rewrites the value once, not on every build.
+   *
+   * @param regex the regular expression to add.
+   * @param replacement the replacement to add, {@code $n} and {@code ${name}} refer to the groups.
+   *
+   * @return {@code this} for builder chain.
+   *
+   * @throws java.util.regex.PatternSyntaxException if the regular expression is not valid.
+   * @throws IllegalArgumentException if the replacement refers to a group that the pattern does not have.
+   */
+  @NotNull
+  public final S pattern(@NotNull final String regex, @NotNull final String replacement) {
+    return this.pattern(Pattern.compile(regex), replacement);
+  }
+
+  /**
+   * adds a regular expression rewrite that is applied to the value before the keys are replaced.
+   *
+   * @param pattern the pattern to add.
+   * @param replacement the replacement to add, {@code $n} and {@code ${name}} refer to the groups.
+   *
+   * @return {@code this} for builder chain.
+   *
+   * @throws IllegalArgumentException if the replacement refers to a group that the pattern does not have.
+   */
+  @NotNull
+  public final S pattern(@NotNull final Pattern pattern, @NotNull final String replacement) {
+    final var compiled = RpPattern.of(pattern, replacement);
+    this.detach();
+    this.patterns.add(compiled);
+    this.invalidate();
+    return this.self();
+  }
+
+  /**
+   * sets the escape of the inserted values.
+   * <p>
+   * the values are escaped once, when they're resolved, and written in the same pass as the literals, which are
+   * not escaped. the literals are validated when the value is parsed, so a compiled instance validates them once.
+   * the keys that have their own escape by {@link #escape(String, RpEscape)} keep it.
+   *
+   * @param escape the escape to set, {@code null} to not escape.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public final S escape(@Nullable final RpEscape escape) {
+    this.escape = escape;
+    this.invalidate();
+    return this.self();
+  }
+
+  /**
+   * sets the escape of the inserted values of the given key.
+   * <p>
+   * the escape overrides {@link #escape(RpEscape)}, use {@link RpEscape#NONE} to not escape the key.
+   *
+   * @param key the key to set.
+   * @param escape the escape to set.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public final S escape(@NotNull final String key, @NotNull final RpEscape escape) {
+    this.detach();
+    this.escapes.put(key, escape);
+    this.invalidate();
+    return this.self();
+  }
+
+  /**
+   * resolves the placeholders that occur in the replacement values, up to the given depth.
+   * <p>
+   * the values are expanded once per build in dependency order, each of them once, so a value like
+   * {@code %rank_prefix%} that contains {@code %color%} resolves the same way whatever the iteration order of the
+   * replaces is. a placeholder in a value resolves by the replaces of the instance and the build as well, even if
+   * it does not occur in the template. the placeholders of a value are at depth one, the placeholders of their
+   * values at depth two and so on, the ones deeper than the given depth are inserted as they are, their suppliers are
+   * not called. a cycle throws {@link IllegalStateException} on build only if it's expanded within the given depth.
+   * a value that is set on {@link RpContext} directly is used as it is.
+   *
+   * @param nesting the maximum depth to set, {@code 0} to not resolve the placeholders in the values.
+   *
+   * @return {@code this} for builder chain.
+   *
+   * @throws IllegalArgumentException if the depth is negative.
+   */
+  @NotNull
+  public final S nested(final int nesting) {
+    if (nesting < 0) {
+      throw new IllegalArgumentException("nesting depth can not be negative, " + nesting);
+    }
+    this.nesting = nesting;
+    this.invalidate();
+    return this.self();
+  }
+
   /**
    * adds the given regex to {@link #regex}.
    *
@@ -234,7 +954,9 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
    */
   @NotNull
   public final S regex(@NotNull final Collection<String> regex) {
+    this.detach();
     this.regex.addAll(regex);
+    this.rekey();
     return this.self();
   }
 
@@ -259,7 +981,9 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
    */
   @NotNull
   public final S replace(@NotNull final Map<String, Supplier<String>> replaces) {
+    this.detach();
     this.replaces.putAll(replaces);
+    this.rekey();
     return this.self();
   }
 
@@ -273,8 +997,10 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
   @SafeVarargs
   @NotNull
   public final S replace(@NotNull final Map.Entry<String, Supplier<String>>... replaces) {
+    this.detach();
     Arrays.stream(replaces).forEach(entry ->
       this.replaces.put(entry.getKey(), entry.getValue()));
+    this.rekey();
     return this.self();
   }
 
@@ -293,6 +1019,9 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
 
   /**
    * creates a new instance of {@link S}.
+   * <p>
+   * the configuration is shared with the new instance until one of them changes it, the instance keeps working as
+   * before, its getters stay writable. it's safe to derive from multiple threads while the instance is not changed.
    *
    * @param value the value to create.
    *
@@ -300,10 +1029,65 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
    */
   @NotNull
   public final S value(@NotNull final X value) {
-    return this.newSelf(value).get()
-      .regex(this.getRegex())
-      .replace(this.getReplaces())
-      .map(this.getMaps());
+    final var self = this.newSelf(value).get();
+    ((RpBase<S, X>) self).inherit(this);
+    self.batchThreshold(this.batchThreshold).memoize(this.memoSize).id(this.id).listener(this.listener);
+    return this.template == null ? self : self.compile();
+  }
+
+  /**
+   * obtains the maps.
+   * <p>
+   * the collection is a live view, a change made through it is the same as calling {@link #map(Collection)}.
+   *
+   * @return maps.
+   */
+  @NotNull
+  public Collection<UnaryOperator<X>> getMaps() {
+    return this.mapsView;
+  }
+
+  /**
+   * obtains the regex.
+   * <p>
+   * the collection is a live view, a change made through it is the same as calling {@link #regex(Collection)}.
+   *
+   * @return regex.
+   */
+  @NotNull
+  public Collection<String> getRegex() {
+    return this.regexView;
+  }
+
+  /**
+   * obtains the replaces.
+   * <p>
+   * the map is a live view, a change made through it is the same as calling {@link #replace(Map)}.
+   *
+   * @return replaces.
+   */
+  @NotNull
+  public Map<String, Supplier<String>> getReplaces() {
+    return this.replacesView;
+  }
+
+  /**
+   * obtains the layout of the value, which splits it into the parts that the keys are replaced in.
+   *
+   * @return layout.
+   */
+  @NotNull
+  protected abstract RpLayout<X> layout();
+
+  /**
+   * obtains the backing map of {@link #replaces}, which is the same instance for the instances derived by
+   * {@link #value(Object)} until one of them changes it.
+   *
+   * @return backing replaces.
+   */
+  @NotNull
+  final Map<String, Supplier<String>> replaces() {
+    return this.replaces;
   }
 
   /**
@@ -324,9 +1108,271 @@ public abstract class RpBase<S extends RpBase<S, X>, X> {
    * @param replace the replace to replace.
    *
    * @return replaced value.
+   *
+   * @deprecated the builds replace the keys through {@link #layout()} and do not call this method any more, it
+   * replaces the given regex in every part of the layout.
+   */
+  @NotNull
+  @Deprecated
+  protected X replace(@NotNull final X value, @NotNull final CharSequence regex, @NotNull final CharSequence replace) {
+    final var layout = this.layout();
+    return layout.join(layout.parts(value).stream()
+      .map(part -> part.replace(regex, replace))
+      .collect(Collectors.toList()));
+  }
+
+  /**
+   * renders the given template with the given values, looks up the memo first if it's enabled.
+   *
+   * @param template the template to render.
+   * @param values the values to render.
+   *
+   * @return built value.
+   */
+  @NotNull
+  private X render(@NotNull final RpTemplate template, @NotNull final RpValues values) {
+    final var memo = this.memo();
+    return memo == null
+      ? this.layout().render(template, values)
+      : memo.render(template, values, this.layout());
+  }
+
+  /**
+   * makes {@link #maps}, {@link #patterns}, {@link #escapes}, {@link #regex} and {@link #replaces} immutable, so they
+   * can be shared.
+   */
+  private void share() {
+    if (this.shared) {
+      return;
+    }
+    this.maps = List.copyOf(this.maps);
+    this.patterns = List.copyOf(this.patterns);
+    this.escapes = Map.copyOf(this.escapes);
+    this.regex = List.copyOf(this.regex);
+    this.replaces = Collections.unmodifiableMap(new LinkedHashMap<>(this.replaces));
+    this.shared = true;
+  }
+
+  /**
+   * copies {@link #maps}, {@link #patterns}, {@link #escapes}, {@link #regex} and {@link #replaces} if they're shared.
+   */
+  private synchronized void detach() {
+    if (!this.shared) {
+      return;
+    }
+    this.maps = new ArrayList<>(this.maps);
+    this.patterns = new ArrayList<>(this.patterns);
+    this.escapes = new HashMap<>(this.escapes);
+    this.regex = new ArrayList<>(this.regex);
+    this.replaces = new LinkedHashMap<>(this.replaces);
+    this.shared = false;
+  }
+
+  /**
+   * shares the configuration, the escape, the nesting and the matcher of the given parent.
+   * <p>
+   * the parent is locked while it's shared and read, so concurrent derivations see the same immutable configuration.
+   *
+   * @param parent the parent to inherit.
+   */
+  private void inherit(@NotNull final RpBase<S, X> parent) {
+    synchronized (parent) {
+      parent.share();
+      this.maps = parent.maps;
+      this.patterns = parent.patterns;
+      this.escapes = parent.escapes;
+      this.escape = parent.escape;
+      this.nesting = parent.nesting;
+      this.regex = parent.regex;
+      this.replaces = parent.replaces;
+      this.matcher = parent.matcher;
+    }
+    this.shared = true;
+  }
+
+  /**
+   * drops the compiled template, the premapped value and the memo, keeps the matcher since the keys are the same.
+   */
+  private void invalidate() {
+    this.template = null;
+    this.premapped = null;
+    this.memo = null;
+  }
+
+  /**
+   * drops the matcher too, after the keys of {@link #replaces} or {@link #regex} were changed.
+   */
+  private void rekey() {
+    this.invalidate();
+    this.matcher = null;
+  }
+
+  /**
+   * obtains the memo, creates it if it's enabled and not created yet.
+   *
+   * @return memo, {@code null} if built values are not memoized.
+   */
+  @Nullable
+  private RpMemo<X> memo() {
+    if (this.memoSize <= 0) {
+      return null;
+    }
+    var memo = this.memo;
+    if (memo == null) {
+      memo = new RpMemo<>(this.memoSize);
+      this.memo = memo;
+    }
+    return memo;
+  }
+
+  /**
+   * applies {@link #maps} to {@link #value}, starts from {@link #premapped} if the instance is compiled.
+   *
+   * @return mapped value.
+   */
+  @NotNull
+  private X mapped() {
+    final var premapped = this.premapped;
+    var value = premapped == null ? this.value : premapped;
+    var skip = premapped == null ? 0 : RpPure.prefix(this.maps);
+    for (final var map : this.maps) {
+      if (skip > 0) {
+        skip--;
+        continue;
+      }
+      value = map.apply(value);
+    }
+    return value;
+  }
+
+  /**
+   * applies the leading {@link RpPure} maps of {@link #maps} to {@link #value}.
+   *
+   * @return premapped value.
+   */
+  @NotNull
+  private X premapped() {
+    var value = this.value;
+    var remaining = RpPure.prefix(this.maps);
+    for (final var map : this.maps) {
+      if (remaining-- == 0) {
+        break;
+      }
+      value = map.apply(value);
+    }
+    return value;
+  }
+
+  /**
+   * splits the given value into parts and applies {@link #patterns} to them.
+   *
+   * @param value the value to split.
+   *
+   * @return rewritten parts.
+   */
+  @NotNull
+  private List<String> parts(@NotNull final X value) {
+    return RpPattern.apply(this.patterns, this.layout().parts(value));
+  }
+
+  /**
+   * counts the passes over the value of a build that used the given template.
+   * <p>
+   * a compiled template is rendered in one pass. otherwise every map that is not folded into {@link #premapped}
+   * runs, then the mapped value is parsed and rendered.
+   *
+   * @param compiled the compiled template before the build.
+   * @param template the template of the build.
+   *
+   * @return pass count.
+   */
+  private int passes(@Nullable final RpTemplate compiled, @NotNull final RpTemplate template) {
+    if (template == compiled) {
+      return 1;
+    }
+    final var folded = this.premapped == null ? 0 : RpPure.prefix(this.maps);
+    return this.maps.size() - folded + 2;
+  }
+
+  /**
+   * obtains the compiled template, parses the mapped value if the instance is not compiled or has impure maps.
+   *
+   * @return template.
    */
   @NotNull
-  protected abstract X replace(@NotNull X value, @NotNull CharSequence regex, @NotNull CharSequence replace);
+  private RpTemplate template() {
+    final var template = this.template;
+    if (template != null && RpPure.prefix(this.maps) == this.maps.size()) {
+      return template;
+    }
+    return this.configure(RpTemplate.compile(this.parts(this.mapped()), this.matcher(), this.replaces.size()));
+  }
+
+  /**
+   * configures the given template with the escapes and the nesting of the instance.
+   *
+   * @param template the template to configure.
+   *
+   * @return configured template.
+   */
+  @NotNull
+  private RpTemplate configure(@NotNull final RpTemplate template) {
+    return template.escape(this.escapes(template.matcher())).nest(this.nesting);
+  }
+
+  /**
+   * collects the escapes of the keys of the given matcher.
+   *
+   * @param matcher the matcher to collect.
+   *
+   * @return escapes, indexed by slot, {@code null} if no value is escaped.
+   */
+  @Nullable
+  private RpEscape[] escapes(@NotNull final RpMatcher matcher) {
+    if (this.escape == null && this.escapes.isEmpty()) {
+      return null;
+    }
+    final var keys = matcher.keys();
+    final var escapes = new RpEscape[keys.length];
+    var escaped = false;
+    for (var slot = 0; slot < keys.length; slot++) {
+      final var escape = this.escapes.getOrDefault(keys[slot], this.escape);
+      if (escape != null && escape != RpEscape.NONE) {
+        escapes[slot] = escape;
+        escaped = true;
+      }
+    }
+    return escaped ? escapes : null;
+  }
+
+  /**
+   * obtains the matcher of {@link #replaces} and {@link #regex}, creates it if it's not created yet.
+   *
+   * @return matcher.
+   */
+  @NotNull
+  private RpMatcher matcher() {
+    var matcher = this.matcher;
+    if (matcher == null) {
+      matcher = RpMatcher.of(this.keys().toArray(String[]::new));
+      this.matcher = matcher;
+    }
+    return matcher;
+  }
+
+  /**
+   * collects the keys of {@link #replaces} and {@link #regex}, in slot order.
+   * <p>
+   * the keys of {@link #replaces} come first, so a key that is in both is resolved by {@link #replaces}.
+   *
+   * @return keys.
+   */
+  @NotNull
+  private List<String> keys() {
+    final var keys = new LinkedHashSet<>(this.replaces.keySet());
+    keys.addAll(this.regex);
+    return new ArrayList<>(keys);
+  }
 
   /**
    * obtains the implementation of {@link S}.
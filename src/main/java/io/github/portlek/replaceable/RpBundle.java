@@ -0,0 +1,316 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.UnaryOperator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents thread-safe catalogs of messages that create and compile their instances lazily.
+ * <p>
+ * only the raw texts are indexed when the catalog is created. a {@link RpString} or {@link RpList} is created,
+ * configured and compiled on the first lookup of its key and kept for the next lookups, so the startup time and
+ * the memory scale with the messages that are used. {@link #warmUp(Collection, Executor)} creates a hot set ahead
+ * of time in parallel. the instances are shared between the callers, they should not be changed after the lookup.
+ */
+public final class RpBundle {
+
+  /**
+   * the raw texts, a {@link String} or a {@link List} of lines.
+   */
+  @NotNull
+  private final Map<String, Object> sources;
+
+  /**
+   * the configurer of the strings.
+   */
+  @NotNull
+  private final UnaryOperator<RpString> strings;
+
+  /**
+   * the configurer of the lists.
+   */
+  @NotNull
+  private final UnaryOperator<RpList> lists;
+
+  /**
+   * the created strings.
+   */
+  @NotNull
+  private final Map<String, RpString> createdStrings = new ConcurrentHashMap<>();
+
+  /**
+   * the created lists.
+   */
+  @NotNull
+  private final Map<String, RpList> createdLists = new ConcurrentHashMap<>();
+
+  /**
+   * ctor.
+   *
+   * @param sources the sources.
+   * @param strings the strings.
+   * @param lists the lists.
+   */
+  private RpBundle(@NotNull final Map<String, Object> sources, @NotNull final UnaryOperator<RpString> strings,
+                   @NotNull final UnaryOperator<RpList> lists) {
+    this.sources = sources;
+    this.strings = strings;
+    this.lists = lists;
+  }
+
+  /**
+   * creates a catalog.
+   *
+   * @param messages the messages to create, a value is a text or a collection of lines.
+   *
+   * @return a newly created catalog.
+   */
+  @NotNull
+  public static RpBundle of(@NotNull final Map<String, ?> messages) {
+    return RpBundle.of(messages, UnaryOperator.identity(), UnaryOperator.identity());
+  }
+
+  /**
+   * creates a catalog.
+   *
+   * @param messages the messages to create, a value is a text or a collection of lines.
+   * @param strings the configurer of the strings to create, such as {@code string -> string.regex("%player%")}.
+   * @param lists the configurer of the lists to create.
+   *
+   * @return a newly created catalog.
+   */
+  @NotNull
+  public static RpBundle of(@NotNull final Map<String, ?> messages, @NotNull final UnaryOperator<RpString> strings,
+                            @NotNull final UnaryOperator<RpList> lists) {
+    final var sources = new HashMap<String, Object>(messages.size() * 4 / 3 + 1);
+    messages.forEach((key, value) -> {
+      if (value instanceof Collection<?>) {
+        final var lines = new ArrayList<String>(((Collection<?>) value).size());
+        for (final var line : (Collection<?>) value) {
+          lines.add(Objects.toString(line));
+        }
+        sources.put(key, List.copyOf(lines));
+      } else {
+        sources.put(key, Objects.toString(value));
+      }
+    });
+    return new RpBundle(sources, strings, lists);
+  }
+
+  /**
+   * creates a catalog.
+   *
+   * @param properties the properties to create.
+   * @param strings the configurer of the strings to create.
+   * @param lists the configurer of the lists to create.
+   *
+   * @return a newly created catalog.
+   */
+  @NotNull
+  public static RpBundle of(@NotNull final Properties properties, @NotNull final UnaryOperator<RpString> strings,
+                            @NotNull final UnaryOperator<RpList> lists) {
+    final var messages = new HashMap<String, String>();
+    for (final var key : properties.stringPropertyNames()) {
+      messages.put(key, properties.getProperty(key));
+    }
+    return RpBundle.of(messages, strings, lists);
+  }
+
+  /**
+   * checks if the catalog has the given key.
+   *
+   * @param key the key to check.
+   *
+   * @return {@code true} if the catalog has the key.
+   */
+  public boolean contains(@NotNull final String key) {
+    return this.sources.containsKey(key);
+  }
+
+  /**
+   * obtains the count of the created instances.
+   *
+   * @return created instance count.
+   */
+  public int created() {
+    return this.createdStrings.size() + this.createdLists.size();
+  }
+
+  /**
+   * obtains the keys.
+   *
+   * @return an unmodifiable view of the keys.
+   */
+  @NotNull
+  public Set<String> keys() {
+    return Collections.unmodifiableSet(this.sources.keySet());
+  }
+
+  /**
+   * obtains the list of the given key, creates and compiles it on the first lookup.
+   * <p>
+   * a text is split into lines.
+   *
+   * @param key the key to obtain.
+   *
+   * @return list, {@code null} if the catalog does not have the key.
+   */
+  @Nullable
+  public RpList list(@NotNull final String key) {
+    final var source = this.sources.get(key);
+    if (source == null) {
+      return null;
+    }
+    return this.createdLists.computeIfAbsent(key, ignored -> this.lists.apply(RpList.from(RpBundle.lines(source)))
+      .compile());
+  }
+
+  /**
+   * obtains the count of the keys.
+   *
+   * @return size.
+   */
+  public int size() {
+    return this.sources.size();
+  }
+
+  /**
+   * obtains the string of the given key, creates and compiles it on the first lookup.
+   * <p>
+   * lines are joined by a line feed.
+   *
+   * @param key the key to obtain.
+   *
+   * @return string, {@code null} if the catalog does not have the key.
+   */
+  @Nullable
+  public RpString string(@NotNull final String key) {
+    final var source = this.sources.get(key);
+    if (source == null) {
+      return null;
+    }
+    return this.createdStrings.computeIfAbsent(key, ignored -> this.strings.apply(RpString.from(RpBundle.text(source)))
+      .compile());
+  }
+
+  /**
+   * creates the instances of the given keys in parallel on the common pool.
+   *
+   * @param keys the keys to create.
+   *
+   * @return a future that completes when every instance is created.
+   */
+  @NotNull
+  public CompletableFuture<Void> warmUp(@NotNull final Collection<String> keys) {
+    return this.warmUp(keys, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * creates the instances of the given keys in parallel on the given executor.
+   * <p>
+   * a key of lines creates a {@link RpList}, a key of text creates a {@link RpString}. the keys are split into one
+   * chunk per available processor, the keys that the catalog does not have are skipped.
+   *
+   * @param keys the keys to create.
+   * @param executor the executor to create.
+   *
+   * @return a future that completes when every instance is created.
+   */
+  @NotNull
+  public CompletableFuture<Void> warmUp(@NotNull final Collection<String> keys, @NotNull final Executor executor) {
+    final var list = List.copyOf(keys);
+    final var chunks = Math.max(1, Math.min(list.size(), Runtime.getRuntime().availableProcessors()));
+    final var futures = new CompletableFuture<?>[chunks];
+    for (var chunk = 0; chunk < chunks; chunk++) {
+      final var from = list.size() * chunk / chunks;
+      final var to = list.size() * (chunk + 1) / chunks;
+      futures[chunk] = CompletableFuture.runAsync(() -> {
+        for (final var key : list.subList(from, to)) {
+          this.create(key);
+        }
+      }, executor);
+    }
+    return CompletableFuture.allOf(futures);
+  }
+
+  /**
+   * creates the instance of the given key by the type of its source.
+   *
+   * @param key the key to create.
+   */
+  private void create(@NotNull final String key) {
+    if (this.sources.get(key) instanceof List<?>) {
+      this.list(key);
+    } else {
+      this.string(key);
+    }
+  }
+
+  /**
+   * obtains the lines of the given source.
+   *
+   * @param source the source to obtain.
+   *
+   * @return lines.
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  private static List<String> lines(@NotNull final Object source) {
+    return source instanceof List<?>
+      ? (List<String>) source
+      : List.of(((String) source).split("\n", -1));
+  }
+
+  /**
+   * obtains the text of the given source.
+   *
+   * @param source the source to obtain.
+   *
+   * @return text.
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  private static String text(@NotNull final Object source) {
+    return source instanceof List<?>
+      ? String.join("\n", (List<String>) source)
+      : (String) source;
+  }
+}
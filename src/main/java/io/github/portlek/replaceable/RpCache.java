@@ -0,0 +1,353 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a bounded, thread-safe cache of compiled templates keyed by the source text and the keys.
+ * <p>
+ * the cache is opt-in, it's used by {@link RpBase#compile(RpCache)} only. when the cache grows over its maximum
+ * size, the least frequently used tenth of it is evicted at once, the template that was just added is never evicted
+ * by its own insertion. frequencies are halved periodically, so entries that were hot long ago do not stay forever.
+ */
+public final class RpCache {
+
+  /**
+   * the maximum frequency of an entry.
+   */
+  private static final int MAX_FREQUENCY = 15;
+
+  /**
+   * the entries.
+   */
+  @NotNull
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * the hit count.
+   */
+  @NotNull
+  private final LongAdder hits = new LongAdder();
+
+  /**
+   * the miss count.
+   */
+  @NotNull
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * the eviction count.
+   */
+  @NotNull
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * the hit count since the frequencies were halved last time.
+   */
+  @NotNull
+  private final AtomicInteger samples = new AtomicInteger();
+
+  /**
+   * the maximum size.
+   */
+  private final int maximumSize;
+
+  /**
+   * ctor.
+   *
+   * @param maximumSize the maximum size.
+   */
+  private RpCache(final int maximumSize) {
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * obtains the global cache that holds up to 1024 templates.
+   *
+   * @return global cache.
+   */
+  @NotNull
+  public static RpCache global() {
+    return Global.INSTANCE;
+  }
+
+  /**
+   * creates a cache.
+   *
+   * @param maximumSize the maximum size to create.
+   *
+   * @return a newly created cache.
+   */
+  @NotNull
+  public static RpCache of(final int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be positive, got " + maximumSize);
+    }
+    return new RpCache(maximumSize);
+  }
+
+  /**
+   * removes all templates.
+   */
+  public void clear() {
+    this.entries.clear();
+  }
+
+  /**
+   * obtains the eviction count.
+   *
+   * @return eviction count.
+   */
+  public long evictionCount() {
+    return this.evictions.sum();
+  }
+
+  /**
+   * obtains the hit count.
+   *
+   * @return hit count.
+   */
+  public long hitCount() {
+    return this.hits.sum();
+  }
+
+  /**
+   * obtains the maximum size.
+   *
+   * @return maximum size.
+   */
+  public int maximumSize() {
+    return this.maximumSize;
+  }
+
+  /**
+   * obtains the miss count.
+   *
+   * @return miss count.
+   */
+  public long missCount() {
+    return this.misses.sum();
+  }
+
+  /**
+   * obtains the template count.
+   *
+   * @return size.
+   */
+  public int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * obtains the template of the given parts and keys, compiles it if it's not cached.
+   *
+   * @param parts the parts to obtain.
+   * @param keys the keys to obtain.
+   * @param fixed the count of the keys that are resolved by {@code RpBase#getReplaces()}.
+   *
+   * @return template.
+   */
+  @NotNull
+  RpTemplate template(@NotNull final List<String> parts, @NotNull final List<String> keys, final int fixed) {
+    final var key = new Key(List.copyOf(parts), List.copyOf(keys), fixed);
+    final var entry = this.entries.get(key);
+    if (entry != null) {
+      this.hits.increment();
+      entry.touch();
+      if (this.samples.incrementAndGet() >= this.maximumSize * 10) {
+        this.age();
+      }
+      return entry.template;
+    }
+    this.misses.increment();
+    final var template = RpTemplate.compile(parts, RpMatcher.of(keys.toArray(String[]::new)), fixed);
+    this.entries.putIfAbsent(key, new Entry(template));
+    if (this.entries.size() > this.maximumSize) {
+      this.evict(key);
+    }
+    return template;
+  }
+
+  /**
+   * halves the frequencies of all entries.
+   */
+  private synchronized void age() {
+    if (this.samples.get() < this.maximumSize * 10) {
+      return;
+    }
+    this.samples.set(0);
+    this.entries.values().forEach(Entry::halve);
+  }
+
+  /**
+   * evicts the least frequently used tenth of the entries except the given key, which was just added and has not
+   * been used yet.
+   *
+   * @param added the key to keep.
+   */
+  private synchronized void evict(@NotNull final Key added) {
+    final var size = this.entries.size();
+    if (size <= this.maximumSize) {
+      return;
+    }
+    final var target = this.maximumSize - this.maximumSize / 10;
+    final var candidates = new ArrayList<>(this.entries.entrySet());
+    candidates.removeIf(candidate -> candidate.getKey().equals(added));
+    candidates.sort(Comparator.comparingInt(candidate -> candidate.getValue().frequency.get()));
+    for (var index = 0; index < size - target && index < candidates.size(); index++) {
+      final var candidate = candidates.get(index);
+      if (this.entries.remove(candidate.getKey(), candidate.getValue())) {
+        this.evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * a class that holds the global cache.
+   */
+  private static final class Global {
+
+    /**
+     * the instance.
+     */
+    private static final RpCache INSTANCE = RpCache.of(1024);
+
+    /**
+     * ctor.
+     */
+    private Global() {
+    }
+  }
+
+  /**
+   * a class that represents cached templates.
+   */
+  private static final class Entry {
+
+    /**
+     * the frequency.
+     */
+    @NotNull
+    private final AtomicInteger frequency = new AtomicInteger(1);
+
+    /**
+     * the template.
+     */
+    @NotNull
+    private final RpTemplate template;
+
+    /**
+     * ctor.
+     *
+     * @param template the template.
+     */
+    private Entry(@NotNull final RpTemplate template) {
+      this.template = template;
+    }
+
+    /**
+     * halves the frequency.
+     */
+    private void halve() {
+      this.frequency.updateAndGet(current -> current >> 1);
+    }
+
+    /**
+     * increments the frequency.
+     */
+    private void touch() {
+      this.frequency.updateAndGet(current -> Math.min(current + 1, RpCache.MAX_FREQUENCY));
+    }
+  }
+
+  /**
+   * a class that represents cache keys.
+   */
+  private static final class Key {
+
+    /**
+     * the parts.
+     */
+    @NotNull
+    private final List<String> parts;
+
+    /**
+     * the keys.
+     */
+    @NotNull
+    private final List<String> keys;
+
+    /**
+     * the fixed.
+     */
+    private final int fixed;
+
+    /**
+     * the hash.
+     */
+    private final int hash;
+
+    /**
+     * ctor.
+     *
+     * @param parts the parts.
+     * @param keys the keys.
+     * @param fixed the fixed.
+     */
+    private Key(@NotNull final List<String> parts, @NotNull final List<String> keys, final int fixed) {
+      this.parts = parts;
+      this.keys = keys;
+      this.fixed = fixed;
+      this.hash = 31 * (31 * parts.hashCode() + keys.hashCode()) + fixed;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final var key = (Key) obj;
+      return this.hash == key.hash && this.fixed == key.fixed && this.parts.equals(key.parts)
+        && this.keys.equals(key.keys);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+}
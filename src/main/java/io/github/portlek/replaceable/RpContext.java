@@ -0,0 +1,258 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents reusable replacements of a build, indexed by key slot instead of key.
+ * <p>
+ * a context is created by {@link RpBase#context()} or {@link RpFrozen#context()}, slots are obtained once by
+ * {@link #slot(String)} and filled before every build, so no map is created or hashed per build. a slot that is not
+ * set resolves like it's missing from the map of {@link RpBase#build(Map)}, except that a slot of
+ * {@code RpBase#getReplaces()} can be overridden. a context is not thread-safe, use one context per thread.
+ */
+public final class RpContext {
+
+  /**
+   * the keys, indexed by slot.
+   */
+  @NotNull
+  private final String[] keys;
+
+  /**
+   * the suppliers of the instance, indexed by slot.
+   */
+  @NotNull
+  private final Supplier<String>[] bound;
+
+  /**
+   * the suppliers, indexed by slot.
+   */
+  @NotNull
+  private final Supplier<String>[] suppliers;
+
+  /**
+   * the slots that are set directly.
+   */
+  @NotNull
+  private final boolean[] set;
+
+  /**
+   * the escapes, indexed by slot, {@code null} if no value is escaped.
+   */
+  @Nullable
+  private final RpEscape[] escapes;
+
+  /**
+   * the values, reused between builds.
+   */
+  @NotNull
+  private final RpValues values;
+
+  /**
+   * ctor.
+   *
+   * @param keys the keys.
+   * @param bound the bound.
+   * @param escapes the escapes.
+   */
+  RpContext(@NotNull final String[] keys, @NotNull final Supplier<String>[] bound,
+            @Nullable final RpEscape[] escapes) {
+    this.keys = keys;
+    this.bound = bound;
+    this.suppliers = bound.clone();
+    this.set = new boolean[keys.length];
+    this.escapes = escapes;
+    this.values = new RpValues(keys.length, escapes);
+  }
+
+  /**
+   * creates a context.
+   *
+   * @param keys the keys to create.
+   * @param fixed the count of the keys that are resolved by the given replaces.
+   * @param replaces the replaces of the instance.
+   * @param escapes the escapes of the instance, indexed by slot, {@code null} if no value is escaped.
+   *
+   * @return a newly created context.
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  static RpContext of(@NotNull final String[] keys, final int fixed,
+                      @NotNull final Map<String, Supplier<String>> replaces, @Nullable final RpEscape[] escapes) {
+    final var bound = (Supplier<String>[]) new Supplier<?>[keys.length];
+    for (var slot = 0; slot < fixed; slot++) {
+      bound[slot] = replaces.get(keys[slot]);
+    }
+    return new RpContext(keys, bound, escapes);
+  }
+
+  /**
+   * clears the slots that are set, so they resolve by the instance again.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public RpContext clear() {
+    System.arraycopy(this.bound, 0, this.suppliers, 0, this.bound.length);
+    Arrays.fill(this.set, false);
+    return this;
+  }
+
+  /**
+   * sets the given text to the given slot.
+   *
+   * @param slot the slot to set.
+   * @param value the value to set.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public RpContext set(final int slot, @NotNull final CharSequence value) {
+    this.values.setText(slot, value);
+    this.set[slot] = true;
+    return this;
+  }
+
+  /**
+   * sets the given integral value to the given slot.
+   *
+   * @param slot the slot to set.
+   * @param value the value to set.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public RpContext set(final int slot, final long value) {
+    this.values.setLong(slot, value);
+    this.set[slot] = true;
+    return this;
+  }
+
+  /**
+   * sets the given floating point value to the given slot.
+   *
+   * @param slot the slot to set.
+   * @param value the value to set.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public RpContext set(final int slot, final double value) {
+    this.values.setDouble(slot, value);
+    this.set[slot] = true;
+    return this;
+  }
+
+  /**
+   * sets the given supplier to the given slot, the supplier is called on every build that contains the slot.
+   *
+   * @param slot the slot to set.
+   * @param supplier the supplier to set.
+   *
+   * @return {@code this} for builder chain.
+   */
+  @NotNull
+  public RpContext set(final int slot, @NotNull final Supplier<String> supplier) {
+    this.suppliers[slot] = supplier;
+    this.set[slot] = false;
+    return this;
+  }
+
+  /**
+   * obtains the count of the slots.
+   *
+   * @return size.
+   */
+  public int size() {
+    return this.keys.length;
+  }
+
+  /**
+   * obtains the slot of the given key.
+   *
+   * @param key the key to obtain.
+   *
+   * @return slot, {@code -1} if the key is not registered.
+   */
+  public int slot(@NotNull final String key) {
+    for (var slot = 0; slot < this.keys.length; slot++) {
+      if (this.keys[slot].equals(key)) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * checks if the given slot is set directly.
+   *
+   * @param slot the slot to check.
+   *
+   * @return {@code true} if the value of the slot is already in {@link #values}.
+   */
+  boolean isSet(final int slot) {
+    return this.set[slot];
+  }
+
+  /**
+   * obtains the supplier of the given slot.
+   *
+   * @param slot the slot to obtain.
+   *
+   * @return supplier, {@code null} if the slot resolves to its key.
+   */
+  @Nullable
+  Supplier<String> supplier(final int slot) {
+    return this.suppliers[slot];
+  }
+
+  /**
+   * obtains the values to resolve.
+   *
+   * @param keys the keys of the template to resolve.
+   * @param escapes the escapes of the template to resolve.
+   *
+   * @return values.
+   *
+   * @throws IllegalArgumentException if the context was not created for the given keys and escapes.
+   */
+  @NotNull
+  RpValues values(@NotNull final String[] keys, @Nullable final RpEscape[] escapes) {
+    if (keys != this.keys && !Arrays.equals(keys, this.keys)) {
+      throw new IllegalArgumentException("context was created for other keys, create the context again");
+    }
+    if (!Arrays.equals(escapes, this.escapes)) {
+      throw new IllegalArgumentException("context was created for other escapes, create the context again");
+    }
+    return this.values;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents a sink that counts the characters appended to another sink.
+ * <p>
+ * it's used only when a listener observes the builds, so the size of a build into an {@link Appendable} can be
+ * reported without materializing the built value.
+ */
+final class RpCounter implements Appendable {
+
+  /**
+   * the sink to write.
+   */
+  @NotNull
+  private final Appendable sink;
+
+  /**
+   * the count of the appended characters.
+   */
+  private long count;
+
+  /**
+   * ctor.
+   *
+   * @param sink the sink.
+   */
+  RpCounter(@NotNull final Appendable sink) {
+    this.sink = sink;
+  }
+
+  @NotNull
+  @Override
+  public Appendable append(@Nullable final CharSequence csq) throws IOException {
+    final CharSequence text = csq == null ? "null" : csq;
+    this.sink.append(text);
+    this.count += text.length();
+    return this;
+  }
+
+  @NotNull
+  @Override
+  public Appendable append(@Nullable final CharSequence csq, final int start, final int end) throws IOException {
+    this.sink.append(csq, start, end);
+    this.count += end - start;
+    return this;
+  }
+
+  @NotNull
+  @Override
+  public Appendable append(final char character) throws IOException {
+    this.sink.append(character);
+    this.count++;
+    return this;
+  }
+
+  /**
+   * obtains the count of the appended characters.
+   *
+   * @return appended character count.
+   */
+  long count() {
+    return this.count;
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an abstract class of escaping modes for the inserted replacement values.
+ * <p>
+ * only the values are escaped, each of them once when it's resolved, so the literals of the template are written as
+ * they are and a value that has nothing to escape is not copied. numbers are written as they are, they never need
+ * escaping. the literals are validated once, when the template is parsed, to make sure every escaped placeholder is
+ * in a context that its mode supports.
+ *
+ * @see RpBase#escape(RpEscape)
+ * @see RpBase#escape(String, RpEscape)
+ */
+public abstract class RpEscape {
+
+  /**
+   * the mode that does not escape, to exclude a placeholder from the escaping of the template.
+   */
+  public static final RpEscape NONE = new RpEscape("NONE", "any context") {
+    @NotNull
+    @Override
+    CharSequence escape(@NotNull final CharSequence value) {
+      return value;
+    }
+
+    @Override
+    boolean accepts(final int state) {
+      return true;
+    }
+
+    @Override
+    int scan(@NotNull final String literal, final int state) {
+      return state;
+    }
+  };
+
+  /**
+   * the mode of JSON strings.
+   * <p>
+   * quotes, backslashes, control characters and line separators are escaped, placeholders must be inside a string.
+   */
+  public static final RpEscape JSON = new RpEscape("JSON", "a JSON string") {
+    @NotNull
+    @Override
+    CharSequence escape(@NotNull final CharSequence value) {
+      return RpEscape.json(value, false);
+    }
+
+    @Override
+    boolean accepts(final int state) {
+      return state == RpEscape.IN_STRING;
+    }
+
+    @Override
+    int scan(@NotNull final String literal, final int state) {
+      return RpEscape.scanJson(literal, state);
+    }
+  };
+
+  /**
+   * the mode of JSON chat components.
+   * <p>
+   * escapes as {@link #JSON} and drops the legacy formatting codes, the section sign and the character after it, so
+   * a value can not change the formatting of the component.
+   */
+  public static final RpEscape COMPONENT = new RpEscape("COMPONENT", "a JSON string") {
+    @NotNull
+    @Override
+    CharSequence escape(@NotNull final CharSequence value) {
+      return RpEscape.json(value, true);
+    }
+
+    @Override
+    boolean accepts(final int state) {
+      return state == RpEscape.IN_STRING;
+    }
+
+    @Override
+    int scan(@NotNull final String literal, final int state) {
+      return RpEscape.scanJson(literal, state);
+    }
+  };
+
+  /**
+   * the mode of HTML.
+   * <p>
+   * ampersands, angle brackets and quotes are escaped, placeholders must be in text or in a quoted attribute value.
+   */
+  public static final RpEscape HTML = new RpEscape("HTML", "HTML text or a quoted attribute value") {
+    @NotNull
+    @Override
+    CharSequence escape(@NotNull final CharSequence value) {
+      return RpEscape.html(value);
+    }
+
+    @Override
+    boolean accepts(final int state) {
+      return state != RpEscape.IN_TAG;
+    }
+
+    @Override
+    int scan(@NotNull final String literal, final int state) {
+      return RpEscape.scanHtml(literal, state);
+    }
+  };
+
+  /**
+   * the state of the text out of any string or tag.
+   */
+  private static final int OUTSIDE = 0;
+
+  /**
+   * the state in a JSON string.
+   */
+  private static final int IN_STRING = 1;
+
+  /**
+   * the state in a JSON string, after a backslash.
+   */
+  private static final int IN_ESCAPE = 2;
+
+  /**
+   * the state in an HTML tag, out of the attribute values.
+   */
+  private static final int IN_TAG = 3;
+
+  /**
+   * the state in a double-quoted HTML attribute value.
+   */
+  private static final int IN_DOUBLE_QUOTED = 4;
+
+  /**
+   * the state in a single-quoted HTML attribute value.
+   */
+  private static final int IN_SINGLE_QUOTED = 5;
+
+  /**
+   * the hexadecimal digits.
+   */
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  /**
+   * the name.
+   */
+  @NotNull
+  private final String name;
+
+  /**
+   * the description of the context that the mode supports.
+   */
+  @NotNull
+  private final String context;
+
+  /**
+   * ctor.
+   *
+   * @param name the name.
+   * @param context the context.
+   */
+  RpEscape(@NotNull final String name, @NotNull final String context) {
+    this.name = name;
+    this.context = context;
+  }
+
+  /**
+   * escapes the given value for JSON strings.
+   *
+   * @param value the value to escape.
+   * @param component whether the legacy formatting codes are dropped.
+   *
+   * @return escaped value, the value itself if it has nothing to escape.
+   */
+  @NotNull
+  private static CharSequence json(@NotNull final CharSequence value, final boolean component) {
+    final var length = value.length();
+    var index = 0;
+    while (index < length && !RpEscape.isJsonSpecial(value.charAt(index), component)) {
+      index++;
+    }
+    if (index == length) {
+      return value;
+    }
+    final var builder = new StringBuilder(length + 16).append(value, 0, index);
+    for (; index < length; index++) {
+      final var character = value.charAt(index);
+      if (!RpEscape.isJsonSpecial(character, component)) {
+        builder.append(character);
+        continue;
+      }
+      switch (character) {
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        case '\u00a7':
+          index++;
+          break;
+        default:
+          builder.append("\\u")
+            .append(RpEscape.HEX[character >> 12 & 0xF])
+            .append(RpEscape.HEX[character >> 8 & 0xF])
+            .append(RpEscape.HEX[character >> 4 & 0xF])
+            .append(RpEscape.HEX[character & 0xF]);
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * checks if the given character has to be escaped in JSON strings.
+   *
+   * @param character the character to check.
+   * @param component whether the legacy formatting codes are dropped.
+   *
+   * @return {@code true} if the character has to be escaped.
+   */
+  private static boolean isJsonSpecial(final char character, final boolean component) {
+    return character < ' ' || character == '"' || character == '\\' || character == '\u2028'
+      || character == '\u2029' || component && character == '\u00a7';
+  }
+
+  /**
+   * escapes the given value for HTML.
+   *
+   * @param value the value to escape.
+   *
+   * @return escaped value, the value itself if it has nothing to escape.
+   */
+  @NotNull
+  private static CharSequence html(@NotNull final CharSequence value) {
+    final var length = value.length();
+    var index = 0;
+    while (index < length && !RpEscape.isHtmlSpecial(value.charAt(index))) {
+      index++;
+    }
+    if (index == length) {
+      return value;
+    }
+    final var builder = new StringBuilder(length + 16).append(value, 0, index);
+    for (; index < length; index++) {
+      final var character = value.charAt(index);
+      switch (character) {
+        case '&':
+          builder.append("&amp;");
+          break;
+        case '<':
+          builder.append("&lt;");
+          break;
+        case '>':
+          builder.append("&gt;");
+          break;
+        case '"':
+          builder.append("&quot;");
+          break;
+        case '\'':
+          builder.append("&#39;");
+          break;
+        default:
+          builder.append(character);
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * checks if the given character has to be escaped in HTML.
+   *
+   * @param character the character to check.
+   *
+   * @return {@code true} if the character has to be escaped.
+   */
+  private static boolean isHtmlSpecial(final char character) {
+    return character == '&' || character == '<' || character == '>' || character == '"' || character == '\'';
+  }
+
+  /**
+   * scans the given JSON literal.
+   *
+   * @param literal the literal to scan.
+   * @param state the state before the literal.
+   *
+   * @return the state after the literal.
+   */
+  private static int scanJson(@NotNull final String literal, final int state) {
+    var current = state;
+    for (var index = 0; index < literal.length(); index++) {
+      final var character = literal.charAt(index);
+      if (current == RpEscape.IN_ESCAPE) {
+        current = RpEscape.IN_STRING;
+      } else if (character == '"') {
+        current = current == RpEscape.IN_STRING ? RpEscape.OUTSIDE : RpEscape.IN_STRING;
+      } else if (character == '\\' && current == RpEscape.IN_STRING) {
+        current = RpEscape.IN_ESCAPE;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * scans the given HTML literal.
+   *
+   * @param literal the literal to scan.
+   * @param state the state before the literal.
+   *
+   * @return the state after the literal.
+   */
+  private static int scanHtml(@NotNull final String literal, final int state) {
+    var current = state;
+    for (var index = 0; index < literal.length(); index++) {
+      final var character = literal.charAt(index);
+      if (current == RpEscape.OUTSIDE) {
+        if (character == '<') {
+          current = RpEscape.IN_TAG;
+        }
+      } else if (current == RpEscape.IN_TAG) {
+        if (character == '>') {
+          current = RpEscape.OUTSIDE;
+        } else if (character == '"') {
+          current = RpEscape.IN_DOUBLE_QUOTED;
+        } else if (character == '\'') {
+          current = RpEscape.IN_SINGLE_QUOTED;
+        }
+      } else if (current == RpEscape.IN_DOUBLE_QUOTED && character == '"'
+        || current == RpEscape.IN_SINGLE_QUOTED && character == '\'') {
+        current = RpEscape.IN_TAG;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * escapes the given value.
+   *
+   * @param value the value to escape.
+   *
+   * @return escaped value, the value itself if it has nothing to escape.
+   */
+  @NotNull
+  abstract CharSequence escape(@NotNull CharSequence value);
+
+  /**
+   * checks if a placeholder is allowed in the given state.
+   *
+   * @param state the state to check.
+   *
+   * @return {@code true} if a placeholder is allowed.
+   */
+  abstract boolean accepts(int state);
+
+  /**
+   * scans the given literal of a template.
+   *
+   * @param literal the literal to scan.
+   * @param state the state before the literal, {@code 0} at the start of a part.
+   *
+   * @return the state after the literal.
+   */
+  abstract int scan(@NotNull String literal, int state);
+
+  /**
+   * obtains the description of the context that the mode supports.
+   *
+   * @return context.
+   */
+  @NotNull
+  String context() {
+    return this.context;
+  }
+
+  @Override
+  public String toString() {
+    return this.name;
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents replacement values that fall back to another value when they fail or are too slow.
+ * <p>
+ * {@link RpBase#buildAsync(java.util.Map, Executor)} waits up to the timeout for the supplier, then uses the
+ * fallback, the supplier is not interrupted. a synchronous build can not time out, it uses the fallback only when
+ * the supplier throws. the fallback should be cheap, it may run on the thread that completes the timeout.
+ */
+public final class RpFallback extends RpValue {
+
+  /**
+   * the supplier.
+   */
+  @NotNull
+  private final Supplier<String> supplier;
+
+  /**
+   * the timeout.
+   */
+  @NotNull
+  private final Duration timeout;
+
+  /**
+   * the fallback.
+   */
+  @NotNull
+  private final Supplier<String> fallback;
+
+  /**
+   * ctor.
+   *
+   * @param supplier the supplier.
+   * @param timeout the timeout.
+   * @param fallback the fallback.
+   */
+  private RpFallback(@NotNull final Supplier<String> supplier, @NotNull final Duration timeout,
+                     @NotNull final Supplier<String> fallback) {
+    this.supplier = supplier;
+    this.timeout = timeout;
+    this.fallback = fallback;
+  }
+
+  /**
+   * creates a value that falls back to the given text.
+   *
+   * @param supplier the supplier to create.
+   * @param timeout the timeout to create.
+   * @param fallback the fallback to create.
+   *
+   * @return a newly created value.
+   */
+  @NotNull
+  public static RpFallback of(@NotNull final Supplier<String> supplier, @NotNull final Duration timeout,
+                              @NotNull final String fallback) {
+    return RpFallback.of(supplier, timeout, () -> fallback);
+  }
+
+  /**
+   * creates a value that falls back to the given supplier.
+   *
+   * @param supplier the supplier to create.
+   * @param timeout the timeout to create.
+   * @param fallback the fallback to create.
+   *
+   * @return a newly created value.
+   *
+   * @throws IllegalArgumentException if the timeout is negative.
+   */
+  @NotNull
+  public static RpFallback of(@NotNull final Supplier<String> supplier, @NotNull final Duration timeout,
+                              @NotNull final Supplier<String> fallback) {
+    if (timeout.isNegative()) {
+      throw new IllegalArgumentException("timeout must not be negative, got " + timeout);
+    }
+    return new RpFallback(supplier, timeout, fallback);
+  }
+
+  @Override
+  public String get() {
+    try {
+      return this.supplier.get();
+    } catch (final RuntimeException exception) {
+      return this.fallback.get();
+    }
+  }
+
+  @Override
+  void resolve(@NotNull final RpValues values, final int slot) {
+    try {
+      values.set(slot, this.supplier);
+    } catch (final RuntimeException exception) {
+      values.set(slot, this.fallback);
+    }
+  }
+
+  /**
+   * resolves the value on the given executor, falls back if the supplier fails or does not complete in time.
+   *
+   * @param key the key to resolve.
+   * @param executor the executor to run the supplier.
+   * @param listener the listener to report, {@code null} to not measure.
+   * @param id the id of the template.
+   *
+   * @return a future of resolved value at slot {@code 0}.
+   */
+  @NotNull
+  CompletableFuture<RpValues> resolveAsync(@NotNull final String key, @NotNull final Executor executor,
+                                           @Nullable final RpListener listener, @Nullable final String id) {
+    return CompletableFuture.supplyAsync(() -> RpTemplate.resolve(key, this.supplier, listener, id), executor)
+      .orTimeout(this.timeout.toNanos(), TimeUnit.NANOSECONDS)
+      .exceptionally(throwable -> RpTemplate.resolve(key, this.fallback, listener, id));
+  }
+}
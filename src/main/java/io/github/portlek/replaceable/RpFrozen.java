@@ -0,0 +1,760 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * an immutable snapshot of {@link RpBase}.
+ * <p>
+ * the snapshot has no mutators and is safe to build from any thread without locking.
+ * the suppliers it was frozen with are called from the building thread, so they need to be thread-safe themselves.
+ *
+ * @param <X> type of the value.
+ */
+public final class RpFrozen<X> {
+
+  /**
+   * the value.
+   */
+  @NotNull
+  private final X value;
+
+  /**
+   * the maps.
+   */
+  @NotNull
+  private final List<UnaryOperator<X>> maps;
+
+  /**
+   * the regular expression rewrites.
+   */
+  @NotNull
+  private final List<RpPattern> patterns;
+
+  /**
+   * the replaces.
+   */
+  @NotNull
+  private final Map<String, Supplier<String>> replaces;
+
+  /**
+   * the regex.
+   */
+  @NotNull
+  private final List<String> regex;
+
+  /**
+   * the matcher.
+   */
+  @NotNull
+  private final RpMatcher matcher;
+
+  /**
+   * the escapes of the values, indexed by slot, {@code null} if no value is escaped.
+   */
+  @Nullable
+  private final RpEscape[] escapes;
+
+  /**
+   * the maximum depth of the placeholders that are resolved in the values, {@code 0} to not resolve them.
+   */
+  private final int nesting;
+
+  /**
+   * the compiled template, {@code null} if the value is mapped on every build.
+   */
+  @Nullable
+  private final RpTemplate template;
+
+  /**
+   * the layout.
+   */
+  @NotNull
+  private final RpLayout<X> layout;
+
+  /**
+   * the batch size from which {@link #buildAll(List)} builds in parallel.
+   */
+  private final int batchThreshold;
+
+  /**
+   * the built values, keyed by the resolved replacement values.
+   */
+  @Nullable
+  private final RpMemo<X> memo;
+
+  /**
+   * the id of the template that is reported to {@link #listener}.
+   */
+  @Nullable
+  private final String id;
+
+  /**
+   * the listener that observes the builds.
+   */
+  @Nullable
+  private final RpListener listener;
+
+  /**
+   * ctor.
+   *
+   * @param value the value.
+   * @param maps the maps.
+   * @param patterns the patterns.
+   * @param replaces the replaces.
+   * @param regex the regex.
+   * @param matcher the matcher.
+   * @param escapes the escapes.
+   * @param nesting the nesting.
+   * @param template the template.
+   * @param layout the layout.
+   * @param batchThreshold the batch threshold.
+   * @param memoSize the size of the memo, {@code 0} if built values are not memoized.
+   * @param id the id.
+   * @param listener the listener.
+   */
+  RpFrozen(@NotNull final X value, @NotNull final Collection<UnaryOperator<X>> maps,
+           @NotNull final List<RpPattern> patterns, @NotNull final Map<String, Supplier<String>> replaces,
+           @NotNull final Collection<String> regex, @NotNull final RpMatcher matcher,
+           @Nullable final RpEscape[] escapes, final int nesting, @Nullable final RpTemplate template,
+           @NotNull final RpLayout<X> layout, final int batchThreshold, final int memoSize,
+           @Nullable final String id, @Nullable final RpListener listener) {
+    this.value = value;
+    this.maps = List.copyOf(maps);
+    this.patterns = List.copyOf(patterns);
+    this.replaces = Collections.unmodifiableMap(new LinkedHashMap<>(replaces));
+    this.regex = List.copyOf(regex);
+    this.matcher = matcher;
+    this.escapes = escapes;
+    this.nesting = nesting;
+    this.template = RpPure.prefix(this.maps) == this.maps.size() ? template : null;
+    this.layout = layout;
+    this.batchThreshold = batchThreshold;
+    this.memo = memoSize > 0 ? new RpMemo<>(memoSize) : null;
+    this.id = id;
+    this.listener = listener;
+  }
+
+  /**
+   * builds the snapshot with the given entries.
+   *
+   * @param entries the entry to build.
+   *
+   * @return built value.
+   */
+  @SafeVarargs
+  @NotNull
+  public final X build(@NotNull final Map.Entry<String, Supplier<String>>... entries) {
+    return this.build(Arrays.asList(entries));
+  }
+
+  /**
+   * builds the snapshot with the given entries.
+   *
+   * @param entries the entry to build.
+   *
+   * @return built value.
+   */
+  @NotNull
+  public X build(@NotNull final Collection<Map.Entry<String, Supplier<String>>> entries) {
+    return this.build(entries.stream()
+      .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+  }
+
+  /**
+   * builds the snapshot with the given regex and replace.
+   *
+   * @param regex the regex to build.
+   * @param replace the replace to build.
+   *
+   * @return built value.
+   */
+  @NotNull
+  public X build(@NotNull final String regex, @NotNull final Supplier<String> replace) {
+    return this.build(Collections.singletonMap(regex, replace));
+  }
+
+  /**
+   * builds the snapshot with the given replaces.
+   *
+   * @param replaces the replaces to build.
+   *
+   * @return built value.
+   */
+  @NotNull
+  public X build(@NotNull final Map<String, Supplier<String>> replaces) {
+    return this.build(this.template(), replaces);
+  }
+
+  /**
+   * builds the snapshot with the given context.
+   * <p>
+   * the values are resolved by slot, so no map is created or hashed.
+   *
+   * @param context the context to build.
+   *
+   * @return built value.
+   *
+   * @throws IllegalArgumentException if the context was not created for the keys of the snapshot.
+   */
+  @NotNull
+  public X build(@NotNull final RpContext context) {
+    final var template = this.template();
+    final var listener = this.listener;
+    if (listener == null) {
+      return this.render(template, template.resolve(context, null, null));
+    }
+    final var start = System.nanoTime();
+    final var built = this.render(template, template.resolve(context, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, this.layout.size(built), this.passes(template));
+    return built;
+  }
+
+  /**
+   * builds the snapshot with the given replaces asynchronously.
+   * <p>
+   * every supplier runs concurrently on the given executor and the value is rendered once all of them are done, so
+   * the build takes as long as the slowest supplier. wrap a supplier into {@link RpFallback} to bound it by a timeout.
+   *
+   * @param replaces the replaces to build.
+   * @param executor the executor to run the suppliers.
+   *
+   * @return a future of built value, completed exceptionally if a supplier without a fallback throws.
+   */
+  @NotNull
+  public CompletableFuture<X> buildAsync(@NotNull final Map<String, Supplier<String>> replaces,
+                                         @NotNull final Executor executor) {
+    final var listener = this.listener;
+    final var start = listener == null ? 0L : System.nanoTime();
+    final var template = this.template();
+    final var passes = this.passes(template);
+    return template.resolveAsync(this.replaces, replaces, executor, listener, this.id).thenApply(values -> {
+      final var built = this.render(template, values);
+      if (listener != null) {
+        listener.onBuild(this.id, System.nanoTime() - start, this.layout.size(built), passes);
+      }
+      return built;
+    });
+  }
+
+  /**
+   * builds the snapshot once per given replaces.
+   * <p>
+   * the template is parsed once for the whole batch. if the batch has at least {@link #getBatchThreshold()}
+   * elements, it's split over {@link ForkJoinPool#commonPool()}.
+   *
+   * @param replaces the replaces to build.
+   *
+   * @return built values, in the order of the given replaces.
+   */
+  @NotNull
+  public List<X> buildAll(@NotNull final List<Map<String, Supplier<String>>> replaces) {
+    final var template = this.template();
+    final var results = new Object[replaces.size()];
+    if (results.length < this.batchThreshold) {
+      this.buildAll(template, replaces, results, 0, results.length);
+    } else {
+      final var pool = ForkJoinPool.commonPool();
+      pool.invoke(new Batch<>(this, template, replaces, results, 0, results.length,
+        Math.max(1, results.length / (pool.getParallelism() * 4))));
+    }
+    return this.results(results);
+  }
+
+  /**
+   * builds the snapshot once per given replaces.
+   * <p>
+   * the template is parsed once for the whole batch. if the batch has at least {@link #getBatchThreshold()}
+   * elements, it's split into chunks that run on the given executor, the calling thread waits for all of them.
+   *
+   * @param replaces the replaces to build.
+   * @param executor the executor to run the chunks.
+   *
+   * @return built values, in the order of the given replaces.
+   */
+  @NotNull
+  public List<X> buildAll(@NotNull final List<Map<String, Supplier<String>>> replaces,
+                          @NotNull final Executor executor) {
+    final var template = this.template();
+    final var results = new Object[replaces.size()];
+    if (results.length < this.batchThreshold) {
+      this.buildAll(template, replaces, results, 0, results.length);
+      return this.results(results);
+    }
+    final var chunks = Math.min(results.length, Runtime.getRuntime().availableProcessors() * 4);
+    final var futures = new CompletableFuture<?>[chunks];
+    for (var chunk = 0; chunk < chunks; chunk++) {
+      final var from = (int) ((long) results.length * chunk / chunks);
+      final var to = (int) ((long) results.length * (chunk + 1) / chunks);
+      futures[chunk] = CompletableFuture.runAsync(() ->
+        this.buildAll(template, replaces, results, from, to), executor);
+    }
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (final CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw exception;
+    }
+    return this.results(results);
+  }
+
+  /**
+   * builds the snapshot once per given replaces, lazily.
+   * <p>
+   * the template is parsed once for the whole stream, a parallel stream builds in parallel.
+   *
+   * @param replaces the replaces to build.
+   *
+   * @return a stream of built values.
+   */
+  @NotNull
+  public Stream<X> buildAll(@NotNull final Stream<Map<String, Supplier<String>>> replaces) {
+    final var template = this.template();
+    return replaces.map(replace -> this.build(template, replace));
+  }
+
+  /**
+   * builds the snapshot with the given replaces straight into the given sink.
+   * <p>
+   * the parts of a multi-part value, such as the lines of {@link RpList}, are separated by a line feed.
+   *
+   * @param sink the sink to write.
+   * @param replaces the replaces to build.
+   * @param <A> type of the sink.
+   *
+   * @return the sink.
+   *
+   * @throws IOException if the sink throws an I/O error.
+   */
+  @NotNull
+  public <A extends Appendable> A buildTo(@NotNull final A sink, @NotNull final Map<String, Supplier<String>> replaces)
+    throws IOException {
+    return this.buildTo(sink, "\n", replaces);
+  }
+
+  /**
+   * builds the snapshot with the given replaces straight into the given sink.
+   *
+   * @param sink the sink to write.
+   * @param separator the separator to write between the parts of a multi-part value, such as lines.
+   * @param replaces the replaces to build.
+   * @param <A> type of the sink.
+   *
+   * @return the sink.
+   *
+   * @throws IOException if the sink throws an I/O error.
+   */
+  @NotNull
+  public <A extends Appendable> A buildTo(@NotNull final A sink, @NotNull final CharSequence separator,
+                                          @NotNull final Map<String, Supplier<String>> replaces) throws IOException {
+    final var listener = this.listener;
+    if (listener == null) {
+      final var template = this.template();
+      template.renderTo(sink, separator, template.resolve(this.replaces, replaces));
+      return sink;
+    }
+    final var start = System.nanoTime();
+    final var template = this.template();
+    final var counter = new RpCounter(sink);
+    template.renderTo(counter, separator, template.resolve(this.replaces, replaces, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, counter.count(), this.passes(template));
+    return sink;
+  }
+
+  /**
+   * builds the snapshot with the given replaces into the given buffer as UTF-8.
+   * <p>
+   * the literal text is encoded once per snapshot, only the replacement values are encoded on every build.
+   * the parts of a multi-part value, such as the lines of {@link RpList}, are separated by a line feed.
+   *
+   * @param buffer the buffer to write, heap or direct.
+   * @param replaces the replaces to build.
+   *
+   * @return the buffer.
+   *
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space, nothing is written then.
+   */
+  @NotNull
+  public ByteBuffer buildTo(@NotNull final ByteBuffer buffer,
+                            @NotNull final Map<String, Supplier<String>> replaces) {
+    return this.buildTo(buffer, "\n", replaces);
+  }
+
+  /**
+   * builds the snapshot with the given replaces into the given buffer as UTF-8.
+   *
+   * @param buffer the buffer to write, heap or direct.
+   * @param separator the separator to write between the parts of a multi-part value, such as lines.
+   * @param replaces the replaces to build.
+   *
+   * @return the buffer.
+   *
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space, nothing is written then.
+   */
+  @NotNull
+  public ByteBuffer buildTo(@NotNull final ByteBuffer buffer, @NotNull final CharSequence separator,
+                            @NotNull final Map<String, Supplier<String>> replaces) {
+    final var listener = this.listener;
+    if (listener == null) {
+      final var template = this.template();
+      template.encodeTo(buffer, separator, template.resolve(this.replaces, replaces));
+      return buffer;
+    }
+    final var start = System.nanoTime();
+    final var position = buffer.position();
+    final var template = this.template();
+    template.encodeTo(buffer, separator, template.resolve(this.replaces, replaces, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, buffer.position() - position, this.passes(template));
+    return buffer;
+  }
+
+  /**
+   * builds the snapshot with the given replaces into the given channel as UTF-8.
+   * <p>
+   * the parts of a multi-part value, such as the lines of {@link RpList}, are separated by a line feed.
+   *
+   * @param channel the channel to write.
+   * @param replaces the replaces to build.
+   *
+   * @return written byte count.
+   *
+   * @throws IOException if the channel throws an I/O error.
+   */
+  public int buildTo(@NotNull final WritableByteChannel channel,
+                     @NotNull final Map<String, Supplier<String>> replaces) throws IOException {
+    return this.buildTo(channel, "\n", replaces);
+  }
+
+  /**
+   * builds the snapshot with the given replaces into the given channel as UTF-8.
+   *
+   * @param channel the channel to write.
+   * @param separator the separator to write between the parts of a multi-part value, such as lines.
+   * @param replaces the replaces to build.
+   *
+   * @return written byte count.
+   *
+   * @throws IOException if the channel throws an I/O error.
+   */
+  public int buildTo(@NotNull final WritableByteChannel channel, @NotNull final CharSequence separator,
+                     @NotNull final Map<String, Supplier<String>> replaces) throws IOException {
+    final var listener = this.listener;
+    if (listener == null) {
+      final var template = this.template();
+      return template.encodeTo(channel, separator, template.resolve(this.replaces, replaces));
+    }
+    final var start = System.nanoTime();
+    final var template = this.template();
+    final var written = template.encodeTo(channel, separator,
+      template.resolve(this.replaces, replaces, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, written, this.passes(template));
+    return written;
+  }
+
+  /**
+   * builds the snapshot with the given function and replaces.
+   *
+   * @param function the function to build.
+   * @param replaces the replaces to build.
+   * @param <Y> type of the value.
+   *
+   * @return built value.
+   */
+  @NotNull
+  public <Y> Y buildMap(@NotNull final Function<X, Y> function,
+                        @NotNull final Map<String, Supplier<String>> replaces) {
+    return function.apply(this.build(replaces));
+  }
+
+  /**
+   * creates a reusable context to build with.
+   *
+   * @return a newly created context.
+   */
+  @NotNull
+  public RpContext context() {
+    return RpContext.of(this.matcher.keys(), this.replaces.size(), this.replaces, this.escapes);
+  }
+
+  /**
+   * obtains the batch threshold.
+   *
+   * @return batch threshold.
+   */
+  public int getBatchThreshold() {
+    return this.batchThreshold;
+  }
+
+  /**
+   * obtains the maps.
+   *
+   * @return maps.
+   */
+  @NotNull
+  public List<UnaryOperator<X>> getMaps() {
+    return this.maps;
+  }
+
+  /**
+   * obtains the regex.
+   *
+   * @return regex.
+   */
+  @NotNull
+  public List<String> getRegex() {
+    return this.regex;
+  }
+
+  /**
+   * obtains the replaces.
+   *
+   * @return replaces.
+   */
+  @NotNull
+  public Map<String, Supplier<String>> getReplaces() {
+    return this.replaces;
+  }
+
+  /**
+   * obtains the value.
+   *
+   * @return value.
+   */
+  @NotNull
+  public X getValue() {
+    return this.value;
+  }
+
+  /**
+   * obtains the slot of the given key to set on {@link #context()}.
+   *
+   * @param key the key to obtain.
+   *
+   * @return slot, {@code -1} if the key is not in {@link #getReplaces()} nor in {@link #getRegex()}.
+   */
+  public int slot(@NotNull final String key) {
+    return this.matcher.slot(key);
+  }
+
+  /**
+   * builds the given template with the given replaces.
+   *
+   * @param template the template to build.
+   * @param replaces the replaces to build.
+   *
+   * @return built value.
+   */
+  @NotNull
+  private X build(@NotNull final RpTemplate template, @NotNull final Map<String, Supplier<String>> replaces) {
+    final var listener = this.listener;
+    if (listener == null) {
+      return this.render(template, template.resolve(this.replaces, replaces));
+    }
+    final var start = System.nanoTime();
+    final var built = this.render(template, template.resolve(this.replaces, replaces, listener, this.id));
+    listener.onBuild(this.id, System.nanoTime() - start, this.layout.size(built), this.passes(template));
+    return built;
+  }
+
+  /**
+   * counts the passes over the value of a build that used the given template.
+   *
+   * @param template the template of the build.
+   *
+   * @return pass count, one if the snapshot is compiled, otherwise one per map, one for parsing and one for rendering.
+   */
+  private int passes(@NotNull final RpTemplate template) {
+    return template == this.template ? 1 : this.maps.size() + 2;
+  }
+
+  /**
+   * renders the given template with the given values, looks up the memo first if it's enabled.
+   *
+   * @param template the template to render.
+   * @param values the values to render.
+   *
+   * @return built value.
+   */
+  @NotNull
+  private X render(@NotNull final RpTemplate template, @NotNull final RpValues values) {
+    return this.memo == null
+      ? this.layout.render(template, values)
+      : this.memo.render(template, values, this.layout);
+  }
+
+  /**
+   * builds the given range of the batch.
+   *
+   * @param template the template to build.
+   * @param replaces the replaces to build.
+   * @param results the results to fill.
+   * @param from the start index, inclusive.
+   * @param to the end index, exclusive.
+   */
+  private void buildAll(@NotNull final RpTemplate template, @NotNull final List<Map<String, Supplier<String>>> replaces,
+                        @NotNull final Object[] results, final int from, final int to) {
+    for (var index = from; index < to; index++) {
+      results[index] = this.build(template, replaces.get(index));
+    }
+  }
+
+  /**
+   * wraps the given results into an unmodifiable list.
+   *
+   * @param results the results to wrap.
+   *
+   * @return results as list.
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  private List<X> results(@NotNull final Object[] results) {
+    return Collections.unmodifiableList(Arrays.asList((X[]) results));
+  }
+
+  /**
+   * obtains the compiled template, parses the mapped value if the snapshot has maps.
+   *
+   * @return template.
+   */
+  @NotNull
+  private RpTemplate template() {
+    if (this.template != null) {
+      return this.template;
+    }
+    var value = this.value;
+    for (final var map : this.maps) {
+      value = map.apply(value);
+    }
+    return RpTemplate.compile(RpPattern.apply(this.patterns, this.layout.parts(value)), this.matcher,
+      this.replaces.size()).escape(this.escapes).nest(this.nesting);
+  }
+
+  /**
+   * a class that represents a range of a batch that is split until it's small enough.
+   *
+   * @param <X> type of the value.
+   */
+  private static final class Batch<X> extends RecursiveAction {
+
+    /**
+     * the snapshot.
+     */
+    @NotNull
+    private final RpFrozen<X> frozen;
+
+    /**
+     * the template.
+     */
+    @NotNull
+    private final RpTemplate template;
+
+    /**
+     * the replaces.
+     */
+    @NotNull
+    private final List<Map<String, Supplier<String>>> replaces;
+
+    /**
+     * the results.
+     */
+    @NotNull
+    private final Object[] results;
+
+    /**
+     * the start index, inclusive.
+     */
+    private final int from;
+
+    /**
+     * the end index, exclusive.
+     */
+    private final int to;
+
+    /**
+     * the size from which a range is split.
+     */
+    private final int grain;
+
+    /**
+     * ctor.
+     *
+     * @param frozen the frozen.
+     * @param template the template.
+     * @param replaces the replaces.
+     * @param results the results.
+     * @param from the from.
+     * @param to the to.
+     * @param grain the grain.
+     */
+    private Batch(@NotNull final RpFrozen<X> frozen, @NotNull final RpTemplate template,
+                  @NotNull final List<Map<String, Supplier<String>>> replaces, @NotNull final Object[] results,
+                  final int from, final int to, final int grain) {
+      this.frozen = frozen;
+      this.template = template;
+      this.replaces = replaces;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from <= this.grain) {
+        this.frozen.buildAll(this.template, this.replaces, this.results, this.from, this.to);
+        return;
+      }
+      final var middle = this.from + this.to >>> 1;
+      ForkJoinTask.invokeAll(
+        new Batch<>(this.frozen, this.template, this.replaces, this.results, this.from, middle, this.grain),
+        new Batch<>(this.frozen, this.template, this.replaces, this.results, middle, this.to, this.grain));
+    }
+  }
+}
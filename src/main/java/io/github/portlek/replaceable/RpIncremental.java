@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents stateful renders of {@link RpBase} that rebuild only the parts whose values changed.
+ * <p>
+ * the values of the previous render are kept, a render compares them slot by slot, renders again only the parts
+ * that contain a changed key and returns the previous value when nothing changed. it's meant for periodic renders,
+ * such as sidebars, that can skip sending unchanged parts by {@link #isChanged(int)}. the template and the maps of
+ * the instance are captured when the render is created. an incremental render is not thread-safe, and the built
+ * values are immutable since they're shared with the next render.
+ *
+ * @param <X> type of the value.
+ */
+public final class RpIncremental<X> {
+
+  /**
+   * the template.
+   */
+  @NotNull
+  private final RpTemplate template;
+
+  /**
+   * the layout.
+   */
+  @NotNull
+  private final RpLayout<X> layout;
+
+  /**
+   * the replaces of the instance.
+   */
+  @NotNull
+  private final Map<String, Supplier<String>> replaces;
+
+  /**
+   * the rendered parts.
+   */
+  @NotNull
+  private final String[] parts;
+
+  /**
+   * the parts that changed on the last render.
+   */
+  @NotNull
+  private final boolean[] changed;
+
+  /**
+   * the keys that changed on the last render.
+   */
+  @NotNull
+  private List<String> changedKeys = List.of();
+
+  /**
+   * whether the last render was the first one, which is a change even if the value has no parts.
+   */
+  private boolean first;
+
+  /**
+   * the values of the last render, copied so a reused text that changes later is still seen as a change, {@code null}
+   * if it's not rendered yet.
+   */
+  @Nullable
+  private RpValues values;
+
+  /**
+   * the value of the last render, {@code null} if it's not rendered yet.
+   */
+  @Nullable
+  private X value;
+
+  /**
+   * ctor.
+   *
+   * @param template the template.
+   * @param layout the layout.
+   * @param replaces the replaces.
+   */
+  RpIncremental(@NotNull final RpTemplate template, @NotNull final RpLayout<X> layout,
+                @NotNull final Map<String, Supplier<String>> replaces) {
+    this.template = template;
+    this.layout = layout;
+    this.replaces = Map.copyOf(replaces);
+    this.parts = template.sources().toArray(String[]::new);
+    this.changed = new boolean[this.parts.length];
+  }
+
+  /**
+   * obtains the keys whose values changed on the last render.
+   *
+   * @return changed keys, every key that occurs in the value after the first render.
+   */
+  @NotNull
+  public List<String> changedKeys() {
+    return this.changedKeys;
+  }
+
+  /**
+   * checks if the last render changed the value.
+   *
+   * @return {@code true} if the last render returned a new value, always after the first render.
+   */
+  public boolean isChanged() {
+    if (this.first) {
+      return true;
+    }
+    for (final var part : this.changed) {
+      if (part) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * checks if the last render changed the given part, such as a line of {@link RpList}.
+   *
+   * @param part the part to check.
+   *
+   * @return {@code true} if the part was rendered again.
+   */
+  public boolean isChanged(final int part) {
+    return this.changed[part];
+  }
+
+  /**
+   * renders the value with the replaces of the instance.
+   *
+   * @return rendered value, the previous value if nothing changed.
+   */
+  @NotNull
+  public X render() {
+    return this.render(Collections.emptyMap());
+  }
+
+  /**
+   * renders the value with the given replaces.
+   *
+   * @param replaces the replaces to render.
+   *
+   * @return rendered value, the previous value if nothing changed.
+   */
+  @NotNull
+  public X render(@NotNull final Map<String, Supplier<String>> replaces) {
+    final var values = this.template.resolve(this.replaces, replaces);
+    final var previous = this.values;
+    final var keys = this.template.keys();
+    this.values = values.copy();
+    Arrays.fill(this.changed, false);
+    final var changedKeys = new ArrayList<String>();
+    for (final var slot : this.template.present()) {
+      if (previous == null || !values.equals(slot, previous)) {
+        changedKeys.add(keys[slot]);
+        for (final var part : this.template.occurrences(slot)) {
+          this.changed[part] = true;
+        }
+      }
+    }
+    final var value = this.value;
+    this.first = value == null;
+    if (value != null && changedKeys.isEmpty()) {
+      this.changedKeys = List.of();
+      return value;
+    }
+    if (value == null) {
+      Arrays.fill(this.changed, true);
+    }
+    for (final var index : this.template.dynamic()) {
+      if (this.changed[index]) {
+        this.parts[index] = this.template.part(index).render(values);
+      }
+    }
+    final var rendered = this.layout.immutable(this.layout.join(Arrays.asList(this.parts)));
+    this.changedKeys = Collections.unmodifiableList(changedKeys);
+    this.value = rendered;
+    return rendered;
+  }
+}
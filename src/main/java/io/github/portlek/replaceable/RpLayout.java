@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an abstract class to determine how a value of {@link RpBase} is split into parts and joined back.
+ * <p>
+ * a subclass of {@link RpBase} outside of this package returns its layout from {@link RpBase#layout()}, the
+ * template is parsed from the parts and rendered by joining the rendered parts. implementations must be stateless.
+ *
+ * @param <X> type of the value.
+ */
+public abstract class RpLayout<X> {
+
+  /**
+   * ctor.
+   */
+  protected RpLayout() {
+  }
+
+  /**
+   * splits the given value into parts.
+   *
+   * @param value the value to split.
+   *
+   * @return parts of the value.
+   */
+  @NotNull
+  public abstract List<String> parts(@NotNull X value);
+
+  /**
+   * joins the given parts into a value.
+   *
+   * @param parts the parts to join.
+   *
+   * @return joined value.
+   */
+  @NotNull
+  public abstract X join(@NotNull List<String> parts);
+
+  /**
+   * calculates the size of the given built value.
+   *
+   * @param value the value to calculate.
+   *
+   * @return total character count of all parts.
+   */
+  public long size(@NotNull final X value) {
+    var size = 0L;
+    for (final var part : this.parts(value)) {
+      size += part.length();
+    }
+    return size;
+  }
+
+  /**
+   * makes the given built value safe to share between builds, a mutable value has to be wrapped or copied.
+   *
+   * @param value the value to make immutable.
+   *
+   * @return an immutable view of the value, the given value by default.
+   */
+  @NotNull
+  public X immutable(@NotNull final X value) {
+    return value;
+  }
+
+  /**
+   * renders the given template with the given values.
+   *
+   * @param template the template to render.
+   * @param values the values to render, indexed by key slot.
+   *
+   * @return rendered value.
+   */
+  @NotNull
+  X render(@NotNull final RpTemplate template, @NotNull final RpValues values) {
+    final var parts = new ArrayList<String>(template.size());
+    for (var index = 0; index < template.size(); index++) {
+      parts.add(template.part(index).render(values));
+    }
+    return this.join(parts);
+  }
+}
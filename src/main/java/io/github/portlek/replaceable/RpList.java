@@ -25,7 +25,9 @@
 
 package io.github.portlek.replaceable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
@@ -37,6 +39,50 @@ import org.jetbrains.annotations.NotNull;
  */
 public final class RpList extends RpBase<RpList, List<String>> {
 
+  /**
+   * the layout.
+   * <p>
+   * the lines without placeholders are the original instances, only the lines that contain a key are rendered.
+   */
+  private static final RpLayout<List<String>> LAYOUT = new RpLayout<>() {
+    @NotNull
+    @Override
+    public List<String> parts(@NotNull final List<String> value) {
+      return value;
+    }
+
+    @NotNull
+    @Override
+    public List<String> join(@NotNull final List<String> parts) {
+      return new ArrayList<>(parts);
+    }
+
+    @NotNull
+    @Override
+    public List<String> render(@NotNull final RpTemplate template, @NotNull final RpValues values) {
+      final var list = new ArrayList<>(template.sources());
+      for (final var index : template.dynamic()) {
+        list.set(index, template.part(index).render(values));
+      }
+      return list;
+    }
+
+    @Override
+    public long size(@NotNull final List<String> value) {
+      var size = 0L;
+      for (final var line : value) {
+        size += line.length();
+      }
+      return size;
+    }
+
+    @NotNull
+    @Override
+    public List<String> immutable(@NotNull final List<String> value) {
+      return Collections.unmodifiableList(value);
+    }
+  };
+
   /**
    * ctor.
    *
@@ -116,6 +162,7 @@ public final class RpList extends RpBase<RpList, List<String>> {
 
   @NotNull
   @Override
+  @Deprecated
   public List<String> replace(@NotNull final List<String> value, @NotNull final CharSequence regex,
                               @NotNull final CharSequence replace) {
     return value.stream()
@@ -123,6 +170,12 @@ public final class RpList extends RpBase<RpList, List<String>> {
       .collect(Collectors.toList());
   }
 
+  @NotNull
+  @Override
+  protected RpLayout<List<String>> layout() {
+    return RpList.LAYOUT;
+  }
+
   @NotNull
   @Override
   public RpList self() {
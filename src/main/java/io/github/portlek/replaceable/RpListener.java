@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * an interface to observe the builds of {@link RpBase} and {@link RpFrozen}.
+ * <p>
+ * a listener is called on the building thread, so it needs to be thread-safe, fast and must not throw.
+ * instances without a listener do not measure anything.
+ *
+ * @see RpBase#listener(RpListener)
+ * @see RpMetrics
+ */
+public interface RpListener {
+
+  /**
+   * runs after a build.
+   *
+   * @param id the id of the template, {@code null} if it has no id.
+   * @param nanos the time spent in the build, including the suppliers.
+   * @param size the size of the built value, the total character count of all parts, the written byte count if it's
+   * built into a {@link java.nio.ByteBuffer} or a {@link java.nio.channels.WritableByteChannel}.
+   * @param passes the passes over the value, one per map that is not folded into the compiled template, one for
+   * parsing if it's not compiled and one for rendering.
+   */
+  default void onBuild(@Nullable final String id, final long nanos, final long size, final int passes) {
+  }
+
+  /**
+   * runs after a supplier is called during a build.
+   *
+   * @param id the id of the template, {@code null} if it has no id.
+   * @param key the key of the supplier.
+   * @param nanos the time spent in the supplier.
+   */
+  default void onSupplier(@Nullable final String id, @NotNull final String key, final long nanos) {
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents a live view of a list of {@link RpBase}.
+ * <p>
+ * the view reads the current list of the instance and writes through it, so a change made through the view is
+ * honoured by the builds and drops the compiled state of the instance.
+ *
+ * @param <E> type of the elements.
+ */
+final class RpLiveList<E> extends AbstractList<E> implements RandomAccess {
+
+  /**
+   * the list to read.
+   */
+  @NotNull
+  private final Supplier<List<E>> source;
+
+  /**
+   * the list to write, copied first if it's shared.
+   */
+  @NotNull
+  private final Supplier<List<E>> target;
+
+  /**
+   * the callback that runs after every change.
+   */
+  @NotNull
+  private final Runnable changed;
+
+  /**
+   * ctor.
+   *
+   * @param source the source.
+   * @param target the target.
+   * @param changed the changed.
+   */
+  RpLiveList(@NotNull final Supplier<List<E>> source, @NotNull final Supplier<List<E>> target,
+             @NotNull final Runnable changed) {
+    this.source = source;
+    this.target = target;
+    this.changed = changed;
+  }
+
+  @Override
+  public E get(final int index) {
+    return this.source.get().get(index);
+  }
+
+  @Override
+  public E set(final int index, final E element) {
+    final var previous = this.target.get().set(index, element);
+    this.changed.run();
+    return previous;
+  }
+
+  @Override
+  public void add(final int index, final E element) {
+    this.target.get().add(index, element);
+    this.modCount++;
+    this.changed.run();
+  }
+
+  @Override
+  public E remove(final int index) {
+    final var previous = this.target.get().remove(index);
+    this.modCount++;
+    this.changed.run();
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    if (this.source.get().isEmpty()) {
+      return;
+    }
+    this.target.get().clear();
+    this.modCount++;
+    this.changed.run();
+  }
+
+  @Override
+  public int size() {
+    return this.source.get().size();
+  }
+}
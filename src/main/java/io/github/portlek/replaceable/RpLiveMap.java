@@ -0,0 +1,211 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents a live view of a map of {@link RpBase}.
+ * <p>
+ * the view reads the current map of the instance and writes through it, so a change made through the view is
+ * honoured by the builds and drops the compiled state of the instance. the iterators iterate over a snapshot of the
+ * keys, so removing through them is safe.
+ *
+ * @param <K> type of the keys.
+ * @param <V> type of the values.
+ */
+final class RpLiveMap<K, V> extends AbstractMap<K, V> {
+
+  /**
+   * the map to read.
+   */
+  @NotNull
+  private final Supplier<Map<K, V>> source;
+
+  /**
+   * the map to write, copied first if it's shared.
+   */
+  @NotNull
+  private final Supplier<Map<K, V>> target;
+
+  /**
+   * the callback that runs after every change.
+   */
+  @NotNull
+  private final Runnable changed;
+
+  /**
+   * ctor.
+   *
+   * @param source the source.
+   * @param target the target.
+   * @param changed the changed.
+   */
+  RpLiveMap(@NotNull final Supplier<Map<K, V>> source, @NotNull final Supplier<Map<K, V>> target,
+            @NotNull final Runnable changed) {
+    this.source = source;
+    this.target = target;
+    this.changed = changed;
+  }
+
+  @Override
+  public void clear() {
+    if (this.source.get().isEmpty()) {
+      return;
+    }
+    this.target.get().clear();
+    this.changed.run();
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return this.source.get().containsKey(key);
+  }
+
+  @NotNull
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<>() {
+      @NotNull
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        final var keys = new ArrayList<>(RpLiveMap.this.source.get().keySet()).iterator();
+        return new Iterator<>() {
+          /**
+           * the key that is returned last, {@code null} if it's removed or nothing is returned yet.
+           */
+          @Nullable
+          private K last;
+
+          /**
+           * whether {@link #last} can be removed.
+           */
+          private boolean removable;
+
+          @Override
+          public boolean hasNext() {
+            return keys.hasNext();
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            if (!keys.hasNext()) {
+              throw new NoSuchElementException();
+            }
+            final var key = keys.next();
+            this.last = key;
+            this.removable = true;
+            return new LiveEntry(key, RpLiveMap.this.source.get().get(key));
+          }
+
+          @Override
+          public void remove() {
+            if (!this.removable) {
+              throw new IllegalStateException();
+            }
+            RpLiveMap.this.remove(this.last);
+            this.last = null;
+            this.removable = false;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return RpLiveMap.this.source.get().size();
+      }
+    };
+  }
+
+  @Override
+  public V get(final Object key) {
+    return this.source.get().get(key);
+  }
+
+  @Override
+  public V put(final K key, final V value) {
+    final var previous = this.target.get().put(key, value);
+    this.changed.run();
+    return previous;
+  }
+
+  @Override
+  public void putAll(@NotNull final Map<? extends K, ? extends V> map) {
+    this.target.get().putAll(map);
+    this.changed.run();
+  }
+
+  @Override
+  public V remove(final Object key) {
+    if (!this.source.get().containsKey(key)) {
+      return null;
+    }
+    final var previous = this.target.get().remove(key);
+    this.changed.run();
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    return this.source.get().size();
+  }
+
+  /**
+   * a class that represents an entry whose value is written through the map.
+   */
+  private final class LiveEntry extends SimpleEntry<K, V> {
+
+    /**
+     * the serial version uid.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * ctor.
+     *
+     * @param key the key.
+     * @param value the value.
+     */
+    private LiveEntry(final K key, final V value) {
+      super(key, value);
+    }
+
+    @Override
+    public V setValue(final V value) {
+      RpLiveMap.this.put(this.getKey(), value);
+      return super.setValue(value);
+    }
+  }
+}
@@ -0,0 +1,427 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents read-only catalogs of messages that are stored off-heap in a memory-mapped file.
+ * <p>
+ * {@link #write(Path, Map, Collection)} stores the text of every message with the offsets of its placeholders, so
+ * opening the file again parses nothing. the messages stay in the mapped file, a {@link RpString} or {@link RpList}
+ * is created on every lookup from the stored offsets, without scanning the text. callers keep the instances they
+ * use often. a catalog is thread-safe and limited to 2 GiB.
+ */
+public final class RpMappedBundle {
+
+  /**
+   * the magic number of the file.
+   */
+  private static final int MAGIC = 0x52504D42;
+
+  /**
+   * the version of the file format.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * the kind of a message of text.
+   */
+  private static final byte TEXT = 0;
+
+  /**
+   * the kind of a message of lines.
+   */
+  private static final byte LINES = 1;
+
+  /**
+   * the mapped file.
+   */
+  @NotNull
+  private final ByteBuffer buffer;
+
+  /**
+   * the matcher of the placeholders, shared by the created instances.
+   */
+  @NotNull
+  private final RpMatcher matcher;
+
+  /**
+   * the count of the messages.
+   */
+  private final int size;
+
+  /**
+   * the position of the index, sorted by the hash of the message keys.
+   */
+  private final int index;
+
+  /**
+   * the configurer of the strings.
+   */
+  @NotNull
+  private final UnaryOperator<RpString> strings;
+
+  /**
+   * the configurer of the lists.
+   */
+  @NotNull
+  private final UnaryOperator<RpList> lists;
+
+  /**
+   * ctor.
+   *
+   * @param buffer the buffer.
+   * @param matcher the matcher.
+   * @param size the size.
+   * @param index the index.
+   * @param strings the strings.
+   * @param lists the lists.
+   */
+  private RpMappedBundle(@NotNull final ByteBuffer buffer, @NotNull final RpMatcher matcher, final int size,
+                         final int index, @NotNull final UnaryOperator<RpString> strings,
+                         @NotNull final UnaryOperator<RpList> lists) {
+    this.buffer = buffer;
+    this.matcher = matcher;
+    this.size = size;
+    this.index = index;
+    this.strings = strings;
+    this.lists = lists;
+  }
+
+  /**
+   * opens a catalog.
+   *
+   * @param file the file to open.
+   *
+   * @return an opened catalog.
+   *
+   * @throws IOException if the file can not be read or it's not a catalog.
+   */
+  @NotNull
+  public static RpMappedBundle open(@NotNull final Path file) throws IOException {
+    return RpMappedBundle.open(file, UnaryOperator.identity(), UnaryOperator.identity());
+  }
+
+  /**
+   * opens a catalog.
+   * <p>
+   * the placeholders of the file are added to every created instance by {@link RpBase#regex(String...)} before the
+   * configurer is applied. the stored offsets are used only if the configurer does not change the keys nor add maps
+   * or patterns, otherwise the instance is compiled from its text.
+   *
+   * @param file the file to open.
+   * @param strings the configurer of the strings to create.
+   * @param lists the configurer of the lists to create.
+   *
+   * @return an opened catalog.
+   *
+   * @throws IOException if the file can not be read or it's not a catalog.
+   */
+  @NotNull
+  public static RpMappedBundle open(@NotNull final Path file, @NotNull final UnaryOperator<RpString> strings,
+                                    @NotNull final UnaryOperator<RpList> lists) throws IOException {
+    final ByteBuffer buffer;
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+    }
+    if (buffer.remaining() < 12 || buffer.getInt() != RpMappedBundle.MAGIC) {
+      throw new IOException(file + " is not a replaceable catalog");
+    }
+    final var version = buffer.getInt();
+    if (version != RpMappedBundle.VERSION) {
+      throw new IOException("unsupported catalog version " + version + " in " + file);
+    }
+    final var placeholders = new String[buffer.getInt()];
+    for (var index = 0; index < placeholders.length; index++) {
+      placeholders[index] = RpMappedBundle.readString(buffer);
+    }
+    final var size = buffer.getInt();
+    return new RpMappedBundle(buffer, RpMatcher.of(placeholders), size, buffer.position(), strings, lists);
+  }
+
+  /**
+   * writes a catalog.
+   *
+   * @param file the file to write.
+   * @param messages the messages to write, a value is a text or a collection of lines.
+   * @param placeholders the placeholders to parse.
+   *
+   * @throws IOException if the file can not be written or the catalog is larger than 2 GiB.
+   */
+  public static void write(@NotNull final Path file, @NotNull final Map<String, ?> messages,
+                           @NotNull final Collection<String> placeholders) throws IOException {
+    final var keys = placeholders.stream().distinct().toArray(String[]::new);
+    final var matcher = RpMatcher.of(keys);
+    final var names = new ArrayList<String>(messages.keySet());
+    names.sort(Comparator.comparingInt(String::hashCode));
+    final var entries = new ByteArrayOutputStream();
+    final var output = new DataOutputStream(entries);
+    final var offsets = new int[names.size()];
+    for (var index = 0; index < offsets.length; index++) {
+      final var name = names.get(index);
+      offsets[index] = output.size();
+      RpMappedBundle.writeString(output, name);
+      final var value = messages.get(name);
+      final List<String> parts;
+      if (value instanceof Collection<?>) {
+        output.writeByte(RpMappedBundle.LINES);
+        parts = new ArrayList<>();
+        for (final var line : (Collection<?>) value) {
+          parts.add(Objects.toString(line));
+        }
+      } else {
+        output.writeByte(RpMappedBundle.TEXT);
+        parts = List.of(Objects.toString(value));
+      }
+      output.writeInt(parts.size());
+      for (final var part : parts) {
+        final var segments = RpSegments.parse(part, matcher);
+        final var slots = segments.slots();
+        final var positions = segments.offsets(keys);
+        RpMappedBundle.writeString(output, part);
+        output.writeInt(slots.length);
+        for (var slot = 0; slot < slots.length; slot++) {
+          output.writeInt(positions[slot * 2]);
+          output.writeInt(positions[slot * 2 + 1]);
+          output.writeInt(slots[slot]);
+        }
+      }
+    }
+    output.flush();
+    var header = 16L + 8L * names.size();
+    for (final var key : keys) {
+      header += 4L + key.getBytes(StandardCharsets.UTF_8).length;
+    }
+    if (header + entries.size() > Integer.MAX_VALUE) {
+      throw new IOException("catalog is larger than 2 GiB");
+    }
+    try (var stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      stream.writeInt(RpMappedBundle.MAGIC);
+      stream.writeInt(RpMappedBundle.VERSION);
+      stream.writeInt(keys.length);
+      for (final var key : keys) {
+        RpMappedBundle.writeString(stream, key);
+      }
+      stream.writeInt(names.size());
+      for (var index = 0; index < offsets.length; index++) {
+        stream.writeInt(names.get(index).hashCode());
+        stream.writeInt((int) header + offsets[index]);
+      }
+      entries.writeTo(stream);
+    }
+  }
+
+  /**
+   * reads a length-prefixed UTF-8 text at the position of the given buffer.
+   *
+   * @param buffer the buffer to read.
+   *
+   * @return text.
+   */
+  @NotNull
+  private static String readString(@NotNull final ByteBuffer buffer) {
+    final var bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * writes a length-prefixed UTF-8 text.
+   *
+   * @param output the output to write.
+   * @param text the text to write.
+   *
+   * @throws IOException if the output throws an I/O error.
+   */
+  private static void writeString(@NotNull final DataOutputStream output, @NotNull final String text)
+    throws IOException {
+    final var bytes = text.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * checks if the catalog has the given key.
+   *
+   * @param key the key to check.
+   *
+   * @return {@code true} if the catalog has the key.
+   */
+  public boolean contains(@NotNull final String key) {
+    return this.find(key) != -1;
+  }
+
+  /**
+   * creates the list of the given key from the file.
+   * <p>
+   * a text is split into lines.
+   *
+   * @param key the key to create.
+   *
+   * @return a newly created and compiled list, {@code null} if the catalog does not have the key.
+   */
+  @Nullable
+  public RpList list(@NotNull final String key) {
+    final var entry = this.find(key);
+    if (entry == -1) {
+      return null;
+    }
+    final var buffer = this.buffer.duplicate();
+    buffer.position(entry);
+    final var kind = buffer.get();
+    final var template = this.read(buffer);
+    final var lines = kind == RpMappedBundle.LINES
+      ? template.sources()
+      : List.of(template.sources().get(0).split("\n", -1));
+    final var list = this.lists.apply(RpList.from(lines).regex(this.matcher.keys()));
+    return kind == RpMappedBundle.LINES ? list.compile(template) : list.compile();
+  }
+
+  /**
+   * obtains the placeholders that the messages were parsed with.
+   *
+   * @return placeholders.
+   */
+  @NotNull
+  public List<String> placeholders() {
+    return List.of(this.matcher.keys());
+  }
+
+  /**
+   * obtains the count of the messages.
+   *
+   * @return size.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * creates the string of the given key from the file.
+   * <p>
+   * lines are joined by a line feed.
+   *
+   * @param key the key to create.
+   *
+   * @return a newly created and compiled string, {@code null} if the catalog does not have the key.
+   */
+  @Nullable
+  public RpString string(@NotNull final String key) {
+    final var entry = this.find(key);
+    if (entry == -1) {
+      return null;
+    }
+    final var buffer = this.buffer.duplicate();
+    buffer.position(entry);
+    final var kind = buffer.get();
+    final var template = this.read(buffer);
+    final var text = kind == RpMappedBundle.TEXT
+      ? template.sources().get(0)
+      : String.join("\n", template.sources());
+    final var string = this.strings.apply(RpString.from(text).regex(this.matcher.keys()));
+    return kind == RpMappedBundle.TEXT ? string.compile(template) : string.compile();
+  }
+
+  /**
+   * finds the entry of the given key.
+   *
+   * @param key the key to find.
+   *
+   * @return the position of the entry after its key, {@code -1} if the catalog does not have the key.
+   */
+  private int find(@NotNull final String key) {
+    final var hash = key.hashCode();
+    var low = 0;
+    var high = this.size;
+    while (low < high) {
+      final var middle = low + high >>> 1;
+      if (this.buffer.getInt(this.index + middle * 8) < hash) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    final var bytes = key.getBytes(StandardCharsets.UTF_8);
+    final var buffer = this.buffer.duplicate();
+    final var name = new byte[bytes.length];
+    for (var entry = low; entry < this.size && this.buffer.getInt(this.index + entry * 8) == hash; entry++) {
+      final var offset = this.buffer.getInt(this.index + entry * 8 + 4);
+      if (this.buffer.getInt(offset) != bytes.length) {
+        continue;
+      }
+      buffer.position(offset + 4);
+      buffer.get(name);
+      if (Arrays.equals(name, bytes)) {
+        return offset + 4 + bytes.length;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * reads the parts of an entry at the position of the given buffer.
+   *
+   * @param buffer the buffer to read.
+   *
+   * @return template of the parts, parsed with {@link #matcher}.
+   */
+  @NotNull
+  private RpTemplate read(@NotNull final ByteBuffer buffer) {
+    final var parts = new RpSegments[buffer.getInt()];
+    for (var part = 0; part < parts.length; part++) {
+      final var text = RpMappedBundle.readString(buffer);
+      final var slots = new int[buffer.getInt()];
+      final var offsets = new int[slots.length * 2];
+      for (var slot = 0; slot < slots.length; slot++) {
+        offsets[slot * 2] = buffer.getInt();
+        offsets[slot * 2 + 1] = buffer.getInt();
+        slots[slot] = buffer.getInt();
+      }
+      parts[part] = RpSegments.of(text, offsets, slots);
+    }
+    return RpTemplate.of(this.matcher, 0, parts);
+  }
+}
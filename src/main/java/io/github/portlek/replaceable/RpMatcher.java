@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an Aho-Corasick automaton that finds all keys in a single scan of a text.
+ * <p>
+ * overlapping matches are resolved deterministically, the leftmost match wins and on a tie the longest key wins.
+ * empty keys never match.
+ */
+final class RpMatcher {
+
+  /**
+   * the empty transitions.
+   */
+  private static final char[] NO_LABELS = new char[0];
+
+  /**
+   * the empty targets.
+   */
+  private static final int[] NO_TARGETS = new int[0];
+
+  /**
+   * the keys, indexed by slot.
+   */
+  @NotNull
+  private final String[] keys;
+
+  /**
+   * the sorted transition labels of each node.
+   */
+  @NotNull
+  private final char[][] labels;
+
+  /**
+   * the transition targets of each node.
+   */
+  @NotNull
+  private final int[][] targets;
+
+  /**
+   * the failure link of each node.
+   */
+  @NotNull
+  private final int[] fail;
+
+  /**
+   * the depth of each node.
+   */
+  @NotNull
+  private final int[] depth;
+
+  /**
+   * the slot of the longest key that ends at each node, or {@code -1}.
+   */
+  @NotNull
+  private final int[] output;
+
+  /**
+   * ctor.
+   *
+   * @param keys the keys.
+   * @param labels the labels.
+   * @param targets the targets.
+   * @param fail the fail.
+   * @param depth the depth.
+   * @param output the output.
+   */
+  private RpMatcher(@NotNull final String[] keys, @NotNull final char[][] labels, @NotNull final int[][] targets,
+                    @NotNull final int[] fail, @NotNull final int[] depth, @NotNull final int[] output) {
+    this.keys = keys;
+    this.labels = labels;
+    this.targets = targets;
+    this.fail = fail;
+    this.depth = depth;
+    this.output = output;
+  }
+
+  /**
+   * creates a matcher for the given keys.
+   * <p>
+   * if a key occurs more than once, the first slot is used.
+   *
+   * @param keys the keys to create.
+   *
+   * @return a newly created matcher.
+   */
+  @NotNull
+  static RpMatcher of(@NotNull final String... keys) {
+    var capacity = 1;
+    for (final var key : keys) {
+      capacity += key.length();
+    }
+    var labels = new char[capacity][];
+    var targets = new int[capacity][];
+    final var depth = new int[capacity];
+    final var output = new int[capacity];
+    Arrays.fill(output, -1);
+    labels[0] = RpMatcher.NO_LABELS;
+    targets[0] = RpMatcher.NO_TARGETS;
+    var nodes = 1;
+    for (var slot = 0; slot < keys.length; slot++) {
+      final var key = keys[slot];
+      if (key.isEmpty()) {
+        continue;
+      }
+      var node = 0;
+      for (var index = 0; index < key.length(); index++) {
+        final var label = key.charAt(index);
+        var next = RpMatcher.child(labels[node], targets[node], label);
+        if (next == 0) {
+          next = nodes++;
+          labels[next] = RpMatcher.NO_LABELS;
+          targets[next] = RpMatcher.NO_TARGETS;
+          depth[next] = index + 1;
+          final var position = -Arrays.binarySearch(labels[node], label) - 1;
+          labels[node] = RpMatcher.insert(labels[node], position, label);
+          targets[node] = RpMatcher.insert(targets[node], position, next);
+        }
+        node = next;
+      }
+      if (output[node] == -1) {
+        output[node] = slot;
+      }
+    }
+    labels = Arrays.copyOf(labels, nodes);
+    targets = Arrays.copyOf(targets, nodes);
+    final var fail = new int[nodes];
+    final var queue = new ArrayDeque<Integer>();
+    for (final var target : targets[0]) {
+      queue.add(target);
+    }
+    while (!queue.isEmpty()) {
+      final int node = queue.poll();
+      if (output[node] == -1) {
+        output[node] = output[fail[node]];
+      }
+      for (var index = 0; index < labels[node].length; index++) {
+        final var next = targets[node][index];
+        var link = fail[node];
+        while (link != 0 && RpMatcher.child(labels[link], targets[link], labels[node][index]) == 0) {
+          link = fail[link];
+        }
+        fail[next] = RpMatcher.child(labels[link], targets[link], labels[node][index]);
+        queue.add(next);
+      }
+    }
+    return new RpMatcher(keys, labels, targets, fail, Arrays.copyOf(depth, nodes), Arrays.copyOf(output, nodes));
+  }
+
+  /**
+   * finds the transition target of the given label.
+   *
+   * @param labels the labels to search.
+   * @param targets the targets to search.
+   * @param label the label to find.
+   *
+   * @return transition target, or {@code 0} if there is no transition.
+   */
+  private static int child(@NotNull final char[] labels, @NotNull final int[] targets, final char label) {
+    final var index = Arrays.binarySearch(labels, label);
+    return index < 0 ? 0 : targets[index];
+  }
+
+  /**
+   * inserts the given label into the array.
+   *
+   * @param array the array to insert.
+   * @param position the position to insert.
+   * @param label the label to insert.
+   *
+   * @return a new array.
+   */
+  @NotNull
+  private static char[] insert(@NotNull final char[] array, final int position, final char label) {
+    final var result = new char[array.length + 1];
+    System.arraycopy(array, 0, result, 0, position);
+    result[position] = label;
+    System.arraycopy(array, position, result, position + 1, array.length - position);
+    return result;
+  }
+
+  /**
+   * inserts the given target into the array.
+   *
+   * @param array the array to insert.
+   * @param position the position to insert.
+   * @param target the target to insert.
+   *
+   * @return a new array.
+   */
+  @NotNull
+  private static int[] insert(@NotNull final int[] array, final int position, final int target) {
+    final var result = new int[array.length + 1];
+    System.arraycopy(array, 0, result, 0, position);
+    result[position] = target;
+    System.arraycopy(array, position, result, position + 1, array.length - position);
+    return result;
+  }
+
+  /**
+   * finds the leftmost-longest key in the given text, starting from the given index.
+   *
+   * @param text the text to search.
+   * @param from the index to start.
+   * @param match the array that takes the start and the end index of the match.
+   *
+   * @return slot of the found key, or {@code -1} if there is no key in the text.
+   */
+  int find(@NotNull final CharSequence text, final int from, @NotNull final int[] match) {
+    var state = 0;
+    var found = -1;
+    var foundStart = -1;
+    var foundEnd = -1;
+    final var length = text.length();
+    for (var index = from; index < length; index++) {
+      final var label = text.charAt(index);
+      var next = RpMatcher.child(this.labels[state], this.targets[state], label);
+      while (next == 0 && state != 0) {
+        state = this.fail[state];
+        next = RpMatcher.child(this.labels[state], this.targets[state], label);
+      }
+      state = next;
+      final var end = index + 1;
+      if (found != -1 && end - this.depth[state] > foundStart) {
+        break;
+      }
+      final var slot = this.output[state];
+      if (slot == -1) {
+        continue;
+      }
+      final var start = end - this.keys[slot].length();
+      if (found == -1 || start < foundStart || start == foundStart && end > foundEnd) {
+        found = slot;
+        foundStart = start;
+        foundEnd = end;
+      }
+    }
+    if (found != -1) {
+      match[0] = foundStart;
+      match[1] = foundEnd;
+    }
+    return found;
+  }
+
+  /**
+   * obtains the slot of the given key.
+   *
+   * @param key the key to obtain.
+   *
+   * @return slot, {@code -1} if the key is not registered.
+   */
+  int slot(@NotNull final String key) {
+    for (var slot = 0; slot < this.keys.length; slot++) {
+      if (this.keys[slot].equals(key)) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * obtains the keys.
+   *
+   * @return keys.
+   */
+  @NotNull
+  String[] keys() {
+    return this.keys;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a bounded, least recently used cache of built values keyed by the resolved replacement values.
+ * <p>
+ * values are copied when they're stored, since the values of an {@link RpContext} are reused between builds.
+ *
+ * @param <X> type of the value.
+ */
+final class RpMemo<X> {
+
+  /**
+   * the built values.
+   */
+  @NotNull
+  private final Map<Key, X> values;
+
+  /**
+   * ctor.
+   *
+   * @param size the size.
+   */
+  RpMemo(final int size) {
+    this.values = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key, X> eldest) {
+        return this.size() > size;
+      }
+    };
+  }
+
+  /**
+   * obtains the built value of the given template and values, renders and stores it if it's not stored.
+   *
+   * @param template the template to render.
+   * @param values the values to render, indexed by key slot.
+   * @param layout the layout to render.
+   *
+   * @return built value.
+   */
+  @NotNull
+  X render(@NotNull final RpTemplate template, @NotNull final RpValues values,
+           @NotNull final RpLayout<X> layout) {
+    final var key = new Key(template.sources(), values);
+    synchronized (this.values) {
+      final var value = this.values.get(key);
+      if (value != null) {
+        return value;
+      }
+    }
+    final var value = layout.immutable(layout.render(template, values));
+    synchronized (this.values) {
+      this.values.put(new Key(key.sources, values.copy()), value);
+    }
+    return value;
+  }
+
+  /**
+   * a class that represents memo keys.
+   */
+  private static final class Key {
+
+    /**
+     * the sources of the template.
+     */
+    @NotNull
+    private final List<String> sources;
+
+    /**
+     * the resolved values.
+     */
+    @NotNull
+    private final RpValues values;
+
+    /**
+     * the hash.
+     */
+    private final int hash;
+
+    /**
+     * ctor.
+     *
+     * @param sources the sources.
+     * @param values the values.
+     */
+    private Key(@NotNull final List<String> sources, @NotNull final RpValues values) {
+      this.sources = sources;
+      this.values = values;
+      this.hash = 31 * sources.hashCode() + values.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final var key = (Key) obj;
+      return this.hash == key.hash && this.values.equals(key.values) && this.sources.equals(key.sources);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * an implementation of {@link RpListener} that aggregates the builds per template id.
+ * <p>
+ * the builds of templates without an id are aggregated under the empty id.
+ */
+public final class RpMetrics implements RpListener {
+
+  /**
+   * the statistics, keyed by template id.
+   */
+  @NotNull
+  private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+  /**
+   * ctor.
+   */
+  private RpMetrics() {
+  }
+
+  /**
+   * creates an empty metrics.
+   *
+   * @return a newly created metrics.
+   */
+  @NotNull
+  public static RpMetrics create() {
+    return new RpMetrics();
+  }
+
+  /**
+   * obtains the ids of the templates that have statistics.
+   *
+   * @return template ids.
+   */
+  @NotNull
+  public Set<String> ids() {
+    return Collections.unmodifiableSet(this.stats.keySet());
+  }
+
+  @Override
+  public void onBuild(@Nullable final String id, final long nanos, final long size, final int passes) {
+    this.stats(id).build(nanos, size, passes);
+  }
+
+  @Override
+  public void onSupplier(@Nullable final String id, @NotNull final String key, final long nanos) {
+    this.stats(id).supplier(key, nanos);
+  }
+
+  /**
+   * removes all statistics.
+   */
+  public void reset() {
+    this.stats.clear();
+  }
+
+  /**
+   * obtains the statistics of the given template id.
+   *
+   * @param id the id to obtain, {@code null} for the templates without an id.
+   *
+   * @return statistics.
+   */
+  @NotNull
+  public Stats stats(@Nullable final String id) {
+    return this.stats.computeIfAbsent(id == null ? "" : id, key -> new Stats());
+  }
+
+  /**
+   * a class that represents the statistics of a template.
+   */
+  public static final class Stats {
+
+    /**
+     * the bucket count of the latency histogram.
+     */
+    private static final int BUCKETS = 65;
+
+    /**
+     * the build count.
+     */
+    @NotNull
+    private final LongAdder builds = new LongAdder();
+
+    /**
+     * the latency histogram, the bucket {@code i} counts the builds that took less than {@code 2^i} nanoseconds.
+     */
+    @NotNull
+    private final AtomicLongArray histogram = new AtomicLongArray(Stats.BUCKETS);
+
+    /**
+     * the total time.
+     */
+    @NotNull
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * the total passes.
+     */
+    @NotNull
+    private final LongAdder passes = new LongAdder();
+
+    /**
+     * the total size.
+     */
+    @NotNull
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * the total time spent in each supplier.
+     */
+    @NotNull
+    private final Map<String, LongAdder> suppliers = new ConcurrentHashMap<>();
+
+    /**
+     * ctor.
+     */
+    private Stats() {
+    }
+
+    /**
+     * obtains the build count.
+     *
+     * @return build count.
+     */
+    public long builds() {
+      return this.builds.sum();
+    }
+
+    /**
+     * obtains the latency histogram.
+     *
+     * @return the counts of the builds that took less than {@code 2^i} nanoseconds, indexed by {@code i}.
+     */
+    @NotNull
+    public long[] histogram() {
+      final var counts = new long[Stats.BUCKETS];
+      for (var index = 0; index < counts.length; index++) {
+        counts[index] = this.histogram.get(index);
+      }
+      return counts;
+    }
+
+    /**
+     * obtains the total time spent in builds.
+     *
+     * @return total nanoseconds.
+     */
+    public long nanos() {
+      return this.nanos.sum();
+    }
+
+    /**
+     * obtains the total passes over the values.
+     *
+     * @return total passes.
+     */
+    public long passes() {
+      return this.passes.sum();
+    }
+
+    /**
+     * estimates the given percentile of the latency from the histogram.
+     *
+     * @param percentile the percentile to estimate, between {@code 0} and {@code 1}.
+     *
+     * @return the upper bound of the bucket of the percentile, in nanoseconds.
+     */
+    public long percentile(final double percentile) {
+      final var counts = this.histogram();
+      var total = 0L;
+      for (final var count : counts) {
+        total += count;
+      }
+      final var target = (long) Math.ceil(total * percentile);
+      var seen = 0L;
+      for (var index = 0; index < counts.length; index++) {
+        seen += counts[index];
+        if (seen >= target && seen > 0L) {
+          return index >= 63 ? Long.MAX_VALUE : 1L << index;
+        }
+      }
+      return 0L;
+    }
+
+    /**
+     * obtains the total size of the built values.
+     *
+     * @return total size.
+     */
+    public long size() {
+      return this.size.sum();
+    }
+
+    /**
+     * obtains the total time spent in the supplier of the given key.
+     *
+     * @param key the key to obtain.
+     *
+     * @return total nanoseconds.
+     */
+    public long supplierNanos(@NotNull final String key) {
+      final var adder = this.suppliers.get(key);
+      return adder == null ? 0L : adder.sum();
+    }
+
+    /**
+     * obtains the keys of the suppliers that were called.
+     *
+     * @return supplier keys.
+     */
+    @NotNull
+    public Set<String> suppliers() {
+      return Collections.unmodifiableSet(this.suppliers.keySet());
+    }
+
+    /**
+     * records a build.
+     *
+     * @param nanos the nanos to record.
+     * @param size the size to record.
+     * @param passes the passes to record.
+     */
+    private void build(final long nanos, final long size, final int passes) {
+      this.builds.increment();
+      this.nanos.add(nanos);
+      this.size.add(size);
+      this.passes.add(passes);
+      this.histogram.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(0L, nanos)));
+    }
+
+    /**
+     * records a supplier call.
+     *
+     * @param key the key to record.
+     * @param nanos the nanos to record.
+     */
+    private void supplier(@NotNull final String key, final long nanos) {
+      this.suppliers.computeIfAbsent(key, ignored -> new LongAdder()).add(nanos);
+    }
+  }
+}
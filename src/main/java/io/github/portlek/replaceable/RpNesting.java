@@ -0,0 +1,319 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents the resolution of the placeholders that occur in the replacement values of a single build.
+ * <p>
+ * the values are the nodes of a dependency graph, a value depends on the keys that occur in it. the graph is walked
+ * from the template down to {@link #depth} only, so a value is resolved only if it's inserted and parsed only if its
+ * placeholders are expanded. every value is resolved and parsed once, and an expansion that is not cut by the depth
+ * is kept, so the result does not depend on the iteration order of the replaces. a cycle throws only if it's within
+ * the expanded range, placeholders that are nested deeper than {@link #depth} are inserted as they are.
+ */
+final class RpNesting {
+
+  /**
+   * the matcher.
+   */
+  @NotNull
+  private final RpMatcher matcher;
+
+  /**
+   * the maximum depth of the nested placeholders.
+   */
+  private final int depth;
+
+  /**
+   * the suppliers of the slots, {@code null} if a slot has no supplier.
+   */
+  @NotNull
+  private final IntFunction<Supplier<String>> suppliers;
+
+  /**
+   * the listener to report, {@code null} to not measure.
+   */
+  @Nullable
+  private final RpListener listener;
+
+  /**
+   * the id of the template.
+   */
+  @Nullable
+  private final String id;
+
+  /**
+   * the resolved values, not escaped, indexed by slot.
+   */
+  @NotNull
+  private final RpValues values;
+
+  /**
+   * the fully expanded values, not escaped, indexed by slot.
+   */
+  @NotNull
+  private final RpValues expanded;
+
+  /**
+   * the slots whose values are resolved.
+   */
+  @NotNull
+  private final boolean[] resolved;
+
+  /**
+   * the slots whose values are fully expanded into {@link #expanded}.
+   */
+  @NotNull
+  private final boolean[] complete;
+
+  /**
+   * the slots that are being expanded.
+   */
+  @NotNull
+  private final boolean[] visiting;
+
+  /**
+   * the parsed values that have placeholders, indexed by slot.
+   */
+  @NotNull
+  private final RpSegments[] parsed;
+
+  /**
+   * the depths of the placeholders of the fully expanded values, indexed by slot.
+   */
+  @NotNull
+  private final int[] depths;
+
+  /**
+   * the slots that are being expanded, from the outermost.
+   */
+  @NotNull
+  private final int[] path;
+
+  /**
+   * the size of {@link #path}.
+   */
+  private int size;
+
+  /**
+   * ctor.
+   *
+   * @param matcher the matcher.
+   * @param depth the depth.
+   * @param suppliers the suppliers.
+   * @param listener the listener.
+   * @param id the id.
+   */
+  RpNesting(@NotNull final RpMatcher matcher, final int depth,
+            @NotNull final IntFunction<Supplier<String>> suppliers, @Nullable final RpListener listener,
+            @Nullable final String id) {
+    this.matcher = matcher;
+    this.depth = depth;
+    this.suppliers = suppliers;
+    this.listener = listener;
+    this.id = id;
+    final var keys = matcher.keys().length;
+    this.values = new RpValues(keys);
+    this.expanded = new RpValues(keys);
+    this.resolved = new boolean[keys];
+    this.complete = new boolean[keys];
+    this.visiting = new boolean[keys];
+    this.parsed = new RpSegments[keys];
+    this.depths = new int[keys];
+    this.path = new int[keys];
+  }
+
+  /**
+   * sets the value of the given slot that is resolved already, its placeholders are expanded as the others.
+   *
+   * @param slot the slot to set.
+   * @param values the values to set.
+   * @param from the slot of the values to set.
+   */
+  void resolved(final int slot, @NotNull final RpValues values, final int from) {
+    this.values.set(slot, values, from);
+    this.resolved[slot] = true;
+  }
+
+  /**
+   * sets the value of the given slot that is used as it is.
+   *
+   * @param slot the slot to set.
+   * @param values the values to set.
+   */
+  void fixed(final int slot, @NotNull final RpValues values) {
+    this.resolved(slot, values, slot);
+    this.complete(slot);
+  }
+
+  /**
+   * expands the value of the given slot into the given values.
+   *
+   * @param values the values to expand into.
+   * @param slot the slot to expand.
+   *
+   * @throws IllegalStateException if the value depends on itself within the depth.
+   */
+  void expand(@NotNull final RpValues values, final int slot) {
+    final var text = this.expand(slot, this.depth);
+    if (this.complete[slot] && this.depths[slot] <= this.depth) {
+      values.set(slot, this.expanded, slot);
+    } else {
+      values.setText(slot, text);
+    }
+  }
+
+  /**
+   * expands the value of the given slot, the placeholders that are nested deeper than the given depth are kept.
+   *
+   * @param slot the slot to expand.
+   * @param depth the remaining depth.
+   *
+   * @return expanded value.
+   *
+   * @throws IllegalStateException if the value depends on itself within the depth.
+   */
+  @NotNull
+  private CharSequence expand(final int slot, final int depth) {
+    this.resolve(slot);
+    if (this.complete[slot] && this.depths[slot] <= depth) {
+      return this.expanded.text(slot);
+    }
+    if (depth == 0) {
+      return this.values.text(slot);
+    }
+    final var segments = this.parse(slot);
+    if (segments == null) {
+      return this.expanded.text(slot);
+    }
+    if (this.visiting[slot]) {
+      throw new IllegalStateException("placeholders refer to each other: " + this.cycle(slot));
+    }
+    this.visiting[slot] = true;
+    this.path[this.size++] = slot;
+    final var nested = new RpValues(this.depths.length);
+    var cut = false;
+    var nesting = 0;
+    for (final var dependency : segments.slots()) {
+      nested.setText(dependency, this.expand(dependency, depth - 1));
+      if (this.complete[dependency] && this.depths[dependency] < depth) {
+        nesting = Math.max(nesting, this.depths[dependency] + 1);
+      } else {
+        cut = true;
+      }
+    }
+    this.size--;
+    this.visiting[slot] = false;
+    final var text = segments.render(nested);
+    if (!cut) {
+      this.expanded.setText(slot, text);
+      this.depths[slot] = nesting;
+      this.complete[slot] = true;
+    }
+    return text;
+  }
+
+  /**
+   * resolves the value of the given slot if it's not resolved yet, a key without a supplier resolves to itself.
+   *
+   * @param slot the slot to resolve.
+   */
+  private void resolve(final int slot) {
+    if (this.resolved[slot]) {
+      return;
+    }
+    this.resolved[slot] = true;
+    final var key = this.matcher.keys()[slot];
+    final var supplier = this.suppliers.apply(slot);
+    if (supplier == null) {
+      this.values.setText(slot, key);
+      this.complete(slot);
+      return;
+    }
+    RpTemplate.resolve(this.values, slot, key, supplier, this.listener, this.id);
+  }
+
+  /**
+   * parses the value of the given slot once.
+   *
+   * @param slot the slot to parse.
+   *
+   * @return parsed value, {@code null} if it has no placeholder, it's complete then.
+   */
+  @Nullable
+  private RpSegments parse(final int slot) {
+    final var parsed = this.parsed[slot];
+    if (parsed != null) {
+      return parsed;
+    }
+    final var segments = this.values.isText(slot)
+      ? RpSegments.parse(this.values.text(slot).toString(), this.matcher)
+      : null;
+    if (segments == null || segments.isStatic()) {
+      this.complete(slot);
+      return null;
+    }
+    this.parsed[slot] = segments;
+    return segments;
+  }
+
+  /**
+   * marks the value of the given slot as fully expanded, since it has no placeholder to expand.
+   *
+   * @param slot the slot to mark.
+   */
+  private void complete(final int slot) {
+    this.expanded.set(slot, this.values, slot);
+    this.depths[slot] = 0;
+    this.complete[slot] = true;
+  }
+
+  /**
+   * describes the cycle that ends with the given slot.
+   *
+   * @param slot the slot that closes the cycle.
+   *
+   * @return cycle description.
+   */
+  @NotNull
+  private String cycle(final int slot) {
+    var start = this.size - 1;
+    while (this.path[start] != slot) {
+      start--;
+    }
+    final var keys = this.matcher.keys();
+    return IntStream.concat(IntStream.range(start, this.size).map(index -> this.path[index]), IntStream.of(slot))
+      .mapToObj(node -> keys[node])
+      .collect(Collectors.joining(" -> "));
+  }
+}
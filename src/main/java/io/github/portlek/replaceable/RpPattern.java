@@ -0,0 +1,329 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents compiled regular expression rewrites of {@link RpBase}.
+ * <p>
+ * the pattern is compiled and the replacement is parsed once, when the rewrite is registered. the replacement
+ * follows {@link Matcher#appendReplacement(StringBuilder, String)}: {@code $n} and {@code ${name}} refer to groups,
+ * a backslash escapes the next character.
+ */
+final class RpPattern {
+
+  /**
+   * the pattern.
+   */
+  @NotNull
+  private final Pattern pattern;
+
+  /**
+   * the replacement.
+   */
+  @NotNull
+  private final String replacement;
+
+  /**
+   * the literals of the replacement, one more than the group references.
+   */
+  @NotNull
+  private final String[] literals;
+
+  /**
+   * the group numbers of the references, {@code -1} for a reference by name.
+   */
+  @NotNull
+  private final int[] groups;
+
+  /**
+   * the group names of the references, {@code null} for a reference by number.
+   */
+  @NotNull
+  private final String[] names;
+
+  /**
+   * ctor.
+   *
+   * @param pattern the pattern.
+   * @param replacement the replacement.
+   * @param literals the literals.
+   * @param groups the groups.
+   * @param names the names.
+   */
+  private RpPattern(@NotNull final Pattern pattern, @NotNull final String replacement,
+                    @NotNull final String[] literals, @NotNull final int[] groups, @NotNull final String[] names) {
+    this.pattern = pattern;
+    this.replacement = replacement;
+    this.literals = literals;
+    this.groups = groups;
+    this.names = names;
+  }
+
+  /**
+   * creates a rewrite.
+   *
+   * @param pattern the pattern to create.
+   * @param replacement the replacement to create.
+   *
+   * @return a newly created rewrite.
+   *
+   * @throws IllegalArgumentException if the replacement refers to a group that the pattern does not have or it ends
+   *   with an unescaped {@code $} or backslash.
+   */
+  @NotNull
+  static RpPattern of(@NotNull final Pattern pattern, @NotNull final String replacement) {
+    final var groupCount = pattern.matcher("").groupCount();
+    Set<String> groupNames = null;
+    final var literals = new ArrayList<String>();
+    final var groups = new ArrayList<Integer>();
+    final var names = new ArrayList<String>();
+    final var literal = new StringBuilder();
+    var index = 0;
+    while (index < replacement.length()) {
+      final var current = replacement.charAt(index++);
+      if (current == '\\') {
+        if (index == replacement.length()) {
+          throw new IllegalArgumentException("character to be escaped is missing in " + replacement);
+        }
+        literal.append(replacement.charAt(index++));
+        continue;
+      }
+      if (current != '$') {
+        literal.append(current);
+        continue;
+      }
+      if (index == replacement.length()) {
+        throw new IllegalArgumentException("illegal group reference: group index is missing in " + replacement);
+      }
+      if (replacement.charAt(index) == '{') {
+        final var end = replacement.indexOf('}', index);
+        if (end == -1 || end == index + 1) {
+          throw new IllegalArgumentException("illegal named group reference in " + replacement);
+        }
+        final var name = replacement.substring(index + 1, end);
+        if (groupNames == null) {
+          groupNames = RpPattern.names(pattern);
+        }
+        if (!groupNames.contains(name)) {
+          throw new IllegalArgumentException("no group with name {" + name + "} in " + pattern.pattern());
+        }
+        names.add(name);
+        groups.add(-1);
+        index = end + 1;
+      } else {
+        var group = Character.digit(replacement.charAt(index), 10);
+        if (group < 0) {
+          throw new IllegalArgumentException("illegal group reference in " + replacement);
+        }
+        index++;
+        while (index < replacement.length()) {
+          final var digit = Character.digit(replacement.charAt(index), 10);
+          if (digit < 0 || group * 10 + digit > groupCount) {
+            break;
+          }
+          group = group * 10 + digit;
+          index++;
+        }
+        if (group > groupCount) {
+          throw new IllegalArgumentException("no group " + group + " in " + pattern.pattern());
+        }
+        names.add(null);
+        groups.add(group);
+      }
+      literals.add(literal.toString());
+      literal.setLength(0);
+    }
+    literals.add(literal.toString());
+    return new RpPattern(pattern, replacement, literals.toArray(String[]::new),
+      groups.stream().mapToInt(Integer::intValue).toArray(), names.toArray(String[]::new));
+  }
+
+  /**
+   * rewrites the given parts with the given rewrites, in order, through one matcher.
+   *
+   * @param patterns the rewrites to apply.
+   * @param parts the parts to rewrite.
+   *
+   * @return rewritten parts, the given parts if there is no rewrite.
+   */
+  @NotNull
+  static List<String> apply(@NotNull final List<RpPattern> patterns, @NotNull final List<String> parts) {
+    if (patterns.isEmpty()) {
+      return parts;
+    }
+    final var rewritten = new ArrayList<String>(parts.size());
+    Matcher matcher = null;
+    for (final var part : parts) {
+      var text = part;
+      for (final var pattern : patterns) {
+        matcher = matcher == null
+          ? pattern.pattern.matcher(text)
+          : matcher.usePattern(pattern.pattern).reset(text);
+        text = pattern.replace(matcher, text);
+      }
+      rewritten.add(text);
+    }
+    return rewritten;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof RpPattern)) {
+      return false;
+    }
+    final var pattern = (RpPattern) obj;
+    return this.pattern.flags() == pattern.pattern.flags()
+      && this.pattern.pattern().equals(pattern.pattern.pattern())
+      && this.replacement.equals(pattern.replacement);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.pattern.pattern(), this.pattern.flags(), this.replacement);
+  }
+
+  @Override
+  public String toString() {
+    return "RpPattern(pattern=" + this.pattern + ", replacement=" + this.replacement + ")";
+  }
+
+  /**
+   * collects the names of the named groups of the given pattern.
+   * <p>
+   * escaped characters, quoted sequences and character classes are skipped, so only real {@code (?<name>} groups
+   * are collected.
+   *
+   * @param pattern the pattern to collect.
+   *
+   * @return group names.
+   */
+  @NotNull
+  private static Set<String> names(@NotNull final Pattern pattern) {
+    final var names = new HashSet<String>();
+    if ((pattern.flags() & Pattern.LITERAL) != 0) {
+      return names;
+    }
+    final var regex = pattern.pattern();
+    var classes = 0;
+    var index = 0;
+    while (index < regex.length()) {
+      final var current = regex.charAt(index++);
+      if (current == '\\') {
+        if (regex.startsWith("Q", index)) {
+          final var end = regex.indexOf("\\E", index);
+          index = end == -1 ? regex.length() : end + 2;
+        } else {
+          index++;
+        }
+      } else if (current == '[') {
+        classes++;
+      } else if (current == ']' && classes > 0) {
+        classes--;
+      } else if (current == '(' && classes == 0 && regex.startsWith("?<", index)) {
+        final var start = index + 2;
+        var end = start;
+        while (end < regex.length() && RpPattern.isNameChar(regex.charAt(end))) {
+          end++;
+        }
+        if (end > start && end < regex.length() && regex.charAt(end) == '>') {
+          names.add(regex.substring(start, end));
+        }
+      }
+    }
+    return names;
+  }
+
+  /**
+   * checks if the given character can be in a group name.
+   *
+   * @param character the character to check.
+   *
+   * @return {@code true} if the character is an ASCII letter or digit.
+   */
+  private static boolean isNameChar(final char character) {
+    return character >= 'a' && character <= 'z' || character >= 'A' && character <= 'Z'
+      || character >= '0' && character <= '9';
+  }
+
+  /**
+   * replaces every match of the given matcher in the given text.
+   *
+   * @param matcher the matcher to find, reset to the text.
+   * @param text the text to replace.
+   *
+   * @return replaced text, the given text if nothing matches.
+   */
+  @NotNull
+  private String replace(@NotNull final Matcher matcher, @NotNull final String text) {
+    if (!matcher.find()) {
+      return text;
+    }
+    final var builder = new StringBuilder(text.length() + 16);
+    var last = 0;
+    do {
+      builder.append(text, last, matcher.start());
+      for (var index = 0; index < this.groups.length; index++) {
+        builder.append(this.literals[index]);
+        final var group = this.group(matcher, index);
+        if (group != null) {
+          builder.append(group);
+        }
+      }
+      builder.append(this.literals[this.groups.length]);
+      last = matcher.end();
+    } while (matcher.find());
+    return builder.append(text, last, text.length()).toString();
+  }
+
+  /**
+   * obtains the group of the given reference.
+   *
+   * @param matcher the matcher to obtain.
+   * @param index the index of the reference.
+   *
+   * @return matched group, {@code null} if the group did not participate in the match.
+   */
+  @Nullable
+  private String group(@NotNull final Matcher matcher, final int index) {
+    final var group = this.groups[index];
+    return group == -1
+      ? matcher.group(this.names[index])
+      : matcher.group(group);
+  }
+}
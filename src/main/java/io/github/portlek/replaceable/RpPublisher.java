@@ -0,0 +1,330 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents publishers of the built values of {@link RpBase} that emit only when the value changes.
+ * <p>
+ * the suppliers are sampled on the scheduler with a fixed delay through an {@link RpIncremental}, a value is
+ * published only if it differs from the previous one. every subscriber gets the latest value on subscribe and
+ * honors its own demand: a subscriber that does not request keeps only the latest value, older values are
+ * dropped. a supplier that throws stops the publisher and signals the error to the subscribers, {@link #close()}
+ * stops it and completes them.
+ *
+ * @param <X> type of the value.
+ */
+public final class RpPublisher<X> implements Flow.Publisher<X>, AutoCloseable {
+
+  /**
+   * the incremental render.
+   */
+  @NotNull
+  private final RpIncremental<X> incremental;
+
+  /**
+   * the replaces to sample.
+   */
+  @NotNull
+  private final Map<String, Supplier<String>> replaces;
+
+  /**
+   * the subscriptions.
+   */
+  @NotNull
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+  /**
+   * the latest published value, {@code null} if nothing is published yet.
+   */
+  @Nullable
+  private volatile X latest;
+
+  /**
+   * the terminal error, {@code null} if the publisher did not fail.
+   */
+  @Nullable
+  private volatile Throwable error;
+
+  /**
+   * whether the publisher is stopped.
+   */
+  private volatile boolean closed;
+
+  /**
+   * the sampling task, {@code null} until it's started.
+   */
+  @Nullable
+  private volatile ScheduledFuture<?> task;
+
+  /**
+   * ctor.
+   *
+   * @param incremental the incremental.
+   * @param replaces the replaces.
+   */
+  private RpPublisher(@NotNull final RpIncremental<X> incremental,
+                      @NotNull final Map<String, Supplier<String>> replaces) {
+    this.incremental = incremental;
+    this.replaces = Map.copyOf(replaces);
+  }
+
+  /**
+   * creates and starts a publisher.
+   *
+   * @param incremental the incremental render to sample.
+   * @param replaces the replaces to sample.
+   * @param period the delay between two samples.
+   * @param scheduler the scheduler to sample.
+   * @param <X> type of the value.
+   *
+   * @return a newly created publisher.
+   *
+   * @throws IllegalArgumentException if the period is not positive.
+   */
+  @NotNull
+  static <X> RpPublisher<X> start(@NotNull final RpIncremental<X> incremental,
+                                  @NotNull final Map<String, Supplier<String>> replaces,
+                                  @NotNull final Duration period, @NotNull final ScheduledExecutorService scheduler) {
+    if (period.isNegative() || period.isZero()) {
+      throw new IllegalArgumentException("period must be positive, got " + period);
+    }
+    final var publisher = new RpPublisher<>(incremental, replaces);
+    publisher.task = scheduler.scheduleWithFixedDelay(publisher::sample, 0L, period.toNanos(), TimeUnit.NANOSECONDS);
+    return publisher;
+  }
+
+  /**
+   * stops sampling and completes the subscribers.
+   */
+  @Override
+  public void close() {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    final var task = this.task;
+    if (task != null) {
+      task.cancel(false);
+    }
+    for (final var subscription : this.subscriptions) {
+      subscription.terminate();
+    }
+  }
+
+  @Override
+  public void subscribe(final Flow.Subscriber<? super X> subscriber) {
+    Objects.requireNonNull(subscriber, "subscriber");
+    final var subscription = new Subscription(subscriber);
+    this.subscriptions.add(subscription);
+    subscriber.onSubscribe(subscription);
+    final var latest = this.latest;
+    if (latest != null) {
+      subscription.offer(latest);
+    }
+    if (this.closed) {
+      subscription.terminate();
+    }
+  }
+
+  /**
+   * renders the value and publishes it if it changed.
+   */
+  private void sample() {
+    if (this.closed) {
+      return;
+    }
+    final X value;
+    try {
+      value = this.incremental.render(this.replaces);
+    } catch (final RuntimeException exception) {
+      this.error = exception;
+      this.close();
+      return;
+    }
+    if (!this.incremental.isChanged()) {
+      return;
+    }
+    this.latest = value;
+    for (final var subscription : this.subscriptions) {
+      subscription.offer(value);
+    }
+  }
+
+  /**
+   * a class that represents subscriptions that keep only the latest undelivered value.
+   */
+  private final class Subscription implements Flow.Subscription {
+
+    /**
+     * the subscriber.
+     */
+    @NotNull
+    private final Flow.Subscriber<? super X> subscriber;
+
+    /**
+     * the latest undelivered value.
+     */
+    @NotNull
+    private final AtomicReference<X> pending = new AtomicReference<>();
+
+    /**
+     * the requested count.
+     */
+    @NotNull
+    private final AtomicLong requested = new AtomicLong();
+
+    /**
+     * the count of the drain requests, only the thread that increments it from zero drains.
+     */
+    @NotNull
+    private final AtomicInteger wip = new AtomicInteger();
+
+    /**
+     * whether the subscription is cancelled or terminated.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * whether the publisher is stopped.
+     */
+    private volatile boolean done;
+
+    /**
+     * the error of a non-positive request, signaled by the draining thread.
+     */
+    @Nullable
+    private volatile Throwable invalid;
+
+    /**
+     * the last delivered value, accessed by the draining thread only.
+     */
+    @Nullable
+    private X last;
+
+    /**
+     * ctor.
+     *
+     * @param subscriber the subscriber.
+     */
+    private Subscription(@NotNull final Flow.Subscriber<? super X> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(final long n) {
+      if (n <= 0L) {
+        this.invalid = new IllegalArgumentException("request must be positive, got " + n);
+        this.drain();
+        return;
+      }
+      this.requested.getAndUpdate(current -> current + n < 0L ? Long.MAX_VALUE : current + n);
+      this.drain();
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+      RpPublisher.this.subscriptions.remove(this);
+    }
+
+    /**
+     * replaces the undelivered value with the given value.
+     *
+     * @param value the value to offer.
+     */
+    private void offer(@NotNull final X value) {
+      this.pending.set(value);
+      this.drain();
+    }
+
+    /**
+     * signals the subscriber that the publisher is stopped.
+     */
+    private void terminate() {
+      this.done = true;
+      this.drain();
+    }
+
+    /**
+     * delivers the undelivered value while there is demand, then the terminal signal if the publisher is stopped.
+     * <p>
+     * every signal to the subscriber is sent from here, so they never overlap, even the error of an invalid request.
+     */
+    private void drain() {
+      if (this.wip.getAndIncrement() != 0) {
+        return;
+      }
+      var missed = 1;
+      do {
+        final var invalid = this.invalid;
+        if (!this.cancelled && invalid != null) {
+          this.cancel();
+          this.subscriber.onError(invalid);
+        }
+        while (!this.cancelled && this.requested.get() > 0L) {
+          final var value = this.pending.getAndSet(null);
+          if (value == null) {
+            break;
+          }
+          if (value == this.last) {
+            continue;
+          }
+          this.last = value;
+          if (this.requested.get() != Long.MAX_VALUE) {
+            this.requested.decrementAndGet();
+          }
+          this.subscriber.onNext(value);
+        }
+        if (!this.cancelled && this.done) {
+          this.cancel();
+          final var error = RpPublisher.this.error;
+          if (error == null) {
+            this.subscriber.onComplete();
+          } else {
+            this.subscriber.onError(error);
+          }
+        }
+        missed = this.wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.Collection;
+import java.util.function.UnaryOperator;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that represents map operators that always return the same output for the same input.
+ * <p>
+ * {@link RpBase#compile()} applies the leading pure maps of an instance once, so the builds skip them. if every
+ * map is pure, the builds use the compiled template as is.
+ *
+ * @param <X> type of the value.
+ */
+public final class RpPure<X> implements UnaryOperator<X> {
+
+  /**
+   * the operator.
+   */
+  @NotNull
+  private final UnaryOperator<X> operator;
+
+  /**
+   * ctor.
+   *
+   * @param operator the operator.
+   */
+  private RpPure(@NotNull final UnaryOperator<X> operator) {
+    this.operator = operator;
+  }
+
+  /**
+   * marks the given operator as pure.
+   *
+   * @param operator the operator to mark.
+   * @param <X> type of the value.
+   *
+   * @return a newly created pure operator.
+   */
+  @NotNull
+  public static <X> RpPure<X> of(@NotNull final UnaryOperator<X> operator) {
+    return new RpPure<>(operator);
+  }
+
+  /**
+   * counts the leading pure maps of the given maps.
+   *
+   * @param maps the maps to count.
+   * @param <X> type of the value.
+   *
+   * @return count of the maps that precede the first map that is not pure.
+   */
+  static <X> int prefix(@NotNull final Collection<UnaryOperator<X>> maps) {
+    var count = 0;
+    for (final var map : maps) {
+      if (!(map instanceof RpPure)) {
+        break;
+      }
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public X apply(final X value) {
+    return this.operator.apply(value);
+  }
+}
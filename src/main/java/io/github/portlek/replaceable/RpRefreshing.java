@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents replacement values that are cached for a time and refreshed in the background.
+ * <p>
+ * the first read calls the supplier on the reading thread. after that, reads never block: a read after the time to
+ * live returns the last value and submits a single refresh to the executor. a refresh that throws keeps the last
+ * value, the next read after the time to live tries again. a value that is not read is not refreshed.
+ */
+public final class RpRefreshing extends RpValue {
+
+  /**
+   * the supplier.
+   */
+  @NotNull
+  private final Supplier<String> supplier;
+
+  /**
+   * the time to live in nanoseconds.
+   */
+  private final long ttl;
+
+  /**
+   * the executor.
+   */
+  @NotNull
+  private final Executor executor;
+
+  /**
+   * whether a refresh is submitted and not done yet.
+   */
+  @NotNull
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+
+  /**
+   * the last loaded value, {@code null} if it's not loaded yet.
+   */
+  @Nullable
+  private volatile Loaded loaded;
+
+  /**
+   * ctor.
+   *
+   * @param supplier the supplier.
+   * @param ttl the time to live in nanoseconds.
+   * @param executor the executor.
+   */
+  private RpRefreshing(@NotNull final Supplier<String> supplier, final long ttl, @NotNull final Executor executor) {
+    this.supplier = supplier;
+    this.ttl = ttl;
+    this.executor = executor;
+  }
+
+  /**
+   * creates a value that is cached for the given time to live.
+   *
+   * @param supplier the supplier to create.
+   * @param ttl the time to live to create.
+   * @param executor the executor to refresh, such as a {@link java.util.concurrent.ScheduledExecutorService}.
+   *
+   * @return a newly created value.
+   *
+   * @throws IllegalArgumentException if the time to live is negative.
+   */
+  @NotNull
+  public static RpRefreshing of(@NotNull final Supplier<String> supplier, @NotNull final Duration ttl,
+                                @NotNull final Executor executor) {
+    if (ttl.isNegative()) {
+      throw new IllegalArgumentException("ttl must not be negative, got " + ttl);
+    }
+    return new RpRefreshing(supplier, ttl.toNanos(), executor);
+  }
+
+  @Override
+  public String get() {
+    return this.current().text(0).toString();
+  }
+
+  /**
+   * drops the cached value, so the next read calls the supplier on the reading thread.
+   */
+  public void invalidate() {
+    this.loaded = null;
+  }
+
+  @Override
+  void resolve(@NotNull final RpValues values, final int slot) {
+    values.set(slot, this.current(), 0);
+  }
+
+  /**
+   * obtains the last loaded value, loads it if it's not loaded yet and submits a refresh if it's expired.
+   *
+   * @return last loaded value at slot {@code 0}.
+   */
+  @NotNull
+  private RpValues current() {
+    var loaded = this.loaded;
+    if (loaded == null) {
+      synchronized (this) {
+        loaded = this.loaded;
+        if (loaded == null) {
+          loaded = this.load();
+          this.loaded = loaded;
+        }
+      }
+      return loaded.values;
+    }
+    if (System.nanoTime() - loaded.nanos >= this.ttl && this.refreshing.compareAndSet(false, true)) {
+      try {
+        this.executor.execute(this::refresh);
+      } catch (final RejectedExecutionException exception) {
+        this.refreshing.set(false);
+      }
+    }
+    return loaded.values;
+  }
+
+  /**
+   * calls the supplier.
+   *
+   * @return loaded value.
+   */
+  @NotNull
+  private Loaded load() {
+    final var values = new RpValues(1);
+    values.set(0, this.supplier);
+    return new Loaded(values, System.nanoTime());
+  }
+
+  /**
+   * loads the value again, keeps the last value if the supplier throws.
+   */
+  private void refresh() {
+    try {
+      this.loaded = this.load();
+    } catch (final RuntimeException ignored) {
+      // the last value is kept until the next refresh succeeds.
+    } finally {
+      this.refreshing.set(false);
+    }
+  }
+
+  /**
+   * a class that represents loaded values.
+   */
+  private static final class Loaded {
+
+    /**
+     * the values.
+     */
+    @NotNull
+    private final RpValues values;
+
+    /**
+     * the time of the load.
+     */
+    private final long nanos;
+
+    /**
+     * ctor.
+     *
+     * @param values the values.
+     * @param nanos the nanos.
+     */
+    private Loaded(@NotNull final RpValues values, final long nanos) {
+      this.values = values;
+      this.nanos = nanos;
+    }
+  }
+}
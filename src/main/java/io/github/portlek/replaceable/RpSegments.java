@@ -0,0 +1,380 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents a text which is split into literal and placeholder segments once.
+ */
+final class RpSegments {
+
+  /**
+   * the empty slots.
+   */
+  private static final int[] NO_SLOTS = new int[0];
+
+  /**
+   * the source.
+   */
+  @NotNull
+  private final String source;
+
+  /**
+   * the literals.
+   * <p>
+   * the literal at {@code i} precedes the placeholder at {@code i}, the last literal is the tail of the text.
+   */
+  @NotNull
+  private final String[] literals;
+
+  /**
+   * the key slots of the placeholders.
+   */
+  @NotNull
+  private final int[] slots;
+
+  /**
+   * the total length of the literals.
+   */
+  private final int length;
+
+  /**
+   * the UTF-8 encoded literals, encoded once on the first byte render.
+   */
+  @Nullable
+  private volatile byte[][] encoded;
+
+  /**
+   * the total encoded length of the literals.
+   */
+  private volatile int encodedLength;
+
+  /**
+   * ctor.
+   *
+   * @param source the source.
+   * @param literals the literals.
+   * @param slots the slots.
+   */
+  private RpSegments(@NotNull final String source, @NotNull final String[] literals, @NotNull final int[] slots) {
+    this.source = source;
+    this.literals = literals;
+    this.slots = slots;
+    var total = 0;
+    for (final var literal : literals) {
+      total += literal.length();
+    }
+    this.length = total;
+  }
+
+  /**
+   * creates segments of the given text from the given placeholder offsets that were parsed before.
+   *
+   * @param text the text to create.
+   * @param offsets the start and the end of every placeholder, in order.
+   * @param slots the key slots of the placeholders.
+   *
+   * @return segments.
+   */
+  @NotNull
+  static RpSegments of(@NotNull final String text, @NotNull final int[] offsets, @NotNull final int[] slots) {
+    if (slots.length == 0) {
+      return new RpSegments(text, new String[]{text}, RpSegments.NO_SLOTS);
+    }
+    final var literals = new String[slots.length + 1];
+    var position = 0;
+    for (var index = 0; index < slots.length; index++) {
+      literals[index] = text.substring(position, offsets[index * 2]);
+      position = offsets[index * 2 + 1];
+    }
+    literals[slots.length] = text.substring(position);
+    return new RpSegments(text, literals, slots);
+  }
+
+  /**
+   * parses the given text into segments in a single scan.
+   *
+   * @param text the text to parse.
+   * @param matcher the matcher to find keys.
+   *
+   * @return parsed segments.
+   */
+  @NotNull
+  static RpSegments parse(@NotNull final String text, @NotNull final RpMatcher matcher) {
+    final var match = new int[2];
+    var slot = matcher.find(text, 0, match);
+    if (slot == -1) {
+      return new RpSegments(text, new String[]{text}, RpSegments.NO_SLOTS);
+    }
+    final var literals = new ArrayList<String>();
+    var slots = new int[4];
+    var count = 0;
+    var position = 0;
+    while (slot != -1) {
+      literals.add(text.substring(position, match[0]));
+      if (count == slots.length) {
+        slots = Arrays.copyOf(slots, count * 2);
+      }
+      slots[count++] = slot;
+      position = match[1];
+      slot = matcher.find(text, position, match);
+    }
+    literals.add(text.substring(position));
+    return new RpSegments(text, literals.toArray(String[]::new), Arrays.copyOf(slots, count));
+  }
+
+  /**
+   * inlines the values of the given constant slots into the literals.
+   *
+   * @param values the values of the constant slots.
+   * @param constant the slots to inline.
+   *
+   * @return folded segments, {@code this} if no placeholder is constant.
+   */
+  @NotNull
+  RpSegments fold(@NotNull final RpValues values, @NotNull final boolean[] constant) {
+    var remaining = this.slots.length;
+    for (final var slot : this.slots) {
+      if (constant[slot]) {
+        remaining--;
+      }
+    }
+    if (remaining == this.slots.length) {
+      return this;
+    }
+    final var literals = new String[remaining + 1];
+    final var slots = new int[remaining];
+    var count = 0;
+    final var literal = new StringBuilder(this.literals[0]);
+    for (var index = 0; index < this.slots.length; index++) {
+      final var slot = this.slots[index];
+      if (constant[slot]) {
+        values.appendTo(literal, slot);
+      } else {
+        literals[count] = literal.toString();
+        slots[count++] = slot;
+        literal.setLength(0);
+      }
+      literal.append(this.literals[index + 1]);
+    }
+    literals[count] = literal.toString();
+    return new RpSegments(remaining == 0 ? literals[0] : this.source, literals, slots);
+  }
+
+  /**
+   * calculates the start and the end of every placeholder in {@link #source}.
+   *
+   * @param keys the keys, indexed by slot.
+   *
+   * @return the start and the end of every placeholder, in order.
+   */
+  @NotNull
+  int[] offsets(@NotNull final String[] keys) {
+    final var offsets = new int[this.slots.length * 2];
+    var position = 0;
+    for (var index = 0; index < this.slots.length; index++) {
+      position += this.literals[index].length();
+      offsets[index * 2] = position;
+      position += keys[this.slots[index]].length();
+      offsets[index * 2 + 1] = position;
+    }
+    return offsets;
+  }
+
+  /**
+   * checks that every escaped placeholder is in a context that its escape supports.
+   * <p>
+   * only the literals are scanned, once for every escape that occurs in the segments.
+   *
+   * @param escapes the escapes, indexed by slot.
+   * @param keys the keys, indexed by slot.
+   *
+   * @throws IllegalArgumentException if a placeholder is out of the context of its escape.
+   */
+  void validate(@NotNull final RpEscape[] escapes, @NotNull final String[] keys) {
+    for (var index = 0; index < this.slots.length; index++) {
+      final var escape = escapes[this.slots[index]];
+      if (escape == null || this.isValidated(escapes, escape, index)) {
+        continue;
+      }
+      var state = 0;
+      for (var position = 0; position < this.slots.length; position++) {
+        state = escape.scan(this.literals[position], state);
+        final var slot = this.slots[position];
+        if (escapes[slot] == escape && !escape.accepts(state)) {
+          throw new IllegalArgumentException(String.format("%s is not inside %s in \"%s\"", keys[slot],
+            escape.context(), this.source));
+        }
+      }
+    }
+  }
+
+  /**
+   * checks if the segments have no placeholder.
+   *
+   * @return {@code true} if the segments have no placeholder.
+   */
+  boolean isStatic() {
+    return this.slots.length == 0;
+  }
+
+  /**
+   * checks if the given escape occurs before the given placeholder, so it's validated already.
+   *
+   * @param escapes the escapes, indexed by slot.
+   * @param escape the escape to check.
+   * @param index the index of the placeholder.
+   *
+   * @return {@code true} if a previous placeholder has the same escape.
+   */
+  private boolean isValidated(@NotNull final RpEscape[] escapes, @NotNull final RpEscape escape, final int index) {
+    for (var previous = 0; previous < index; previous++) {
+      if (escapes[this.slots[previous]] == escape) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * renders the segments with the given values into a presized buffer.
+   *
+   * @param values the values to render, indexed by key slot.
+   *
+   * @return rendered text.
+   */
+  @NotNull
+  String render(@NotNull final RpValues values) {
+    if (this.isStatic()) {
+      return this.source;
+    }
+    var size = this.length;
+    for (final var slot : this.slots) {
+      size += values.length(slot);
+    }
+    final var builder = new StringBuilder(size);
+    for (var index = 0; index < this.slots.length; index++) {
+      values.appendTo(builder.append(this.literals[index]), this.slots[index]);
+    }
+    return builder.append(this.literals[this.slots.length]).toString();
+  }
+
+  /**
+   * renders the segments with the given values straight into the given sink.
+   *
+   * @param sink the sink to write.
+   * @param values the values to render, indexed by key slot.
+   *
+   * @throws IOException if the sink throws an I/O error.
+   */
+  void renderTo(@NotNull final Appendable sink, @NotNull final RpValues values) throws IOException {
+    for (var index = 0; index < this.slots.length; index++) {
+      values.appendTo(sink.append(this.literals[index]), this.slots[index]);
+    }
+    sink.append(this.literals[this.slots.length]);
+  }
+
+  /**
+   * calculates the UTF-8 encoded length of the segments with the given values.
+   *
+   * @param values the values to render, indexed by key slot.
+   *
+   * @return encoded length.
+   */
+  int encodedLength(@NotNull final RpValues values) {
+    this.encoded();
+    var size = this.encodedLength;
+    for (final var slot : this.slots) {
+      size += values.encodedLength(slot);
+    }
+    return size;
+  }
+
+  /**
+   * renders the segments with the given values into the given buffer as UTF-8.
+   * <p>
+   * the literals are encoded once, only the values are encoded on every render.
+   *
+   * @param buffer the buffer to write.
+   * @param values the values to render, indexed by key slot.
+   */
+  void encodeTo(@NotNull final ByteBuffer buffer, @NotNull final RpValues values) {
+    final var encoded = this.encoded();
+    for (var index = 0; index < this.slots.length; index++) {
+      buffer.put(encoded[index]);
+      values.encodeTo(buffer, this.slots[index]);
+    }
+    buffer.put(encoded[this.slots.length]);
+  }
+
+  /**
+   * obtains the encoded literals, encodes them if they're not encoded yet.
+   *
+   * @return encoded literals.
+   */
+  @NotNull
+  private byte[][] encoded() {
+    var encoded = this.encoded;
+    if (encoded == null) {
+      encoded = new byte[this.literals.length][];
+      var size = 0;
+      for (var index = 0; index < encoded.length; index++) {
+        encoded[index] = this.literals[index].getBytes(StandardCharsets.UTF_8);
+        size += encoded[index].length;
+      }
+      this.encodedLength = size;
+      this.encoded = encoded;
+    }
+    return encoded;
+  }
+
+  /**
+   * obtains the key slots of the placeholders, in order of occurrence.
+   *
+   * @return slots.
+   */
+  @NotNull
+  int[] slots() {
+    return this.slots;
+  }
+
+  /**
+   * obtains the source.
+   *
+   * @return source.
+   */
+  @NotNull
+  String source() {
+    return this.source;
+  }
+}
@@ -25,6 +25,7 @@
 
 package io.github.portlek.replaceable;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
@@ -34,6 +35,40 @@ import org.jetbrains.annotations.NotNull;
  */
 public final class RpString extends RpBase<RpString, String> {
 
+  /**
+   * the layout.
+   */
+  private static final RpLayout<String> LAYOUT = new RpLayout<>() {
+    @NotNull
+    @Override
+    public List<String> parts(@NotNull final String value) {
+      return List.of(value);
+    }
+
+    @NotNull
+    @Override
+    public String join(@NotNull final List<String> parts) {
+      return parts.get(0);
+    }
+
+    @NotNull
+    @Override
+    public String render(@NotNull final RpTemplate template, @NotNull final RpValues values) {
+      return template.part(0).render(values);
+    }
+
+    @Override
+    public long size(@NotNull final String value) {
+      return value.length();
+    }
+
+    @NotNull
+    @Override
+    public String immutable(@NotNull final String value) {
+      return value;
+    }
+  };
+
   /**
    * ctor.
    *
@@ -87,11 +122,18 @@ public final class RpString extends RpBase<RpString, String> {
 
   @NotNull
   @Override
+  @Deprecated
   public String replace(@NotNull final String value, @NotNull final CharSequence regex,
                         @NotNull final CharSequence replace) {
     return value.replace(regex, replace);
   }
 
+  @NotNull
+  @Override
+  protected RpLayout<String> layout() {
+    return RpString.LAYOUT;
+  }
+
   @NotNull
   @Override
   public RpString self() {
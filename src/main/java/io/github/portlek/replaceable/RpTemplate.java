@@ -0,0 +1,664 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents a compiled value of {@link RpBase}.
+ * <p>
+ * a value is split into parts, such as lines of a list, and every part is parsed into {@link RpSegments} once.
+ */
+final class RpTemplate {
+
+  /**
+   * the matcher.
+   * <p>
+   * the first {@link #fixed} keys are taken from {@code RpBase#getReplaces()}, the rest from {@code RpBase#getRegex()}.
+   */
+  @NotNull
+  private final RpMatcher matcher;
+
+  /**
+   * the count of the keys that are resolved by {@code RpBase#getReplaces()}.
+   */
+  private final int fixed;
+
+  /**
+   * the parts.
+   */
+  @NotNull
+  private final RpSegments[] parts;
+
+  /**
+   * the key slots that occur in at least one part, each slot once.
+   */
+  @NotNull
+  private final int[] present;
+
+  /**
+   * the indices of the parts that contain each key slot.
+   */
+  @NotNull
+  private final int[][] occurrences;
+
+  /**
+   * the indices of the parts that contain at least one placeholder.
+   */
+  @NotNull
+  private final int[] dynamic;
+
+  /**
+   * the sources of the parts.
+   */
+  @NotNull
+  private final List<String> sources;
+
+  /**
+   * the escapes of the values, indexed by slot, {@code null} if no value is escaped.
+   */
+  @Nullable
+  private final RpEscape[] escapes;
+
+  /**
+   * the maximum depth of the placeholders that are resolved in the values, {@code 0} to not resolve them.
+   */
+  private final int nesting;
+
+  /**
+   * ctor.
+   *
+   * @param matcher the matcher.
+   * @param fixed the fixed.
+   * @param parts the parts.
+   * @param escapes the escapes.
+   * @param nesting the nesting.
+   */
+  private RpTemplate(@NotNull final RpMatcher matcher, final int fixed, @NotNull final RpSegments[] parts,
+                     @Nullable final RpEscape[] escapes, final int nesting) {
+    this.matcher = matcher;
+    this.fixed = fixed;
+    this.parts = parts;
+    this.escapes = escapes;
+    this.nesting = nesting;
+    final var keys = matcher.keys().length;
+    final var counts = new int[keys];
+    final var last = new int[keys];
+    Arrays.fill(last, -1);
+    var dynamicCount = 0;
+    for (var index = 0; index < parts.length; index++) {
+      final var slots = parts[index].slots();
+      if (slots.length != 0) {
+        dynamicCount++;
+      }
+      for (final var slot : slots) {
+        if (last[slot] != index) {
+          last[slot] = index;
+          counts[slot]++;
+        }
+      }
+    }
+    this.occurrences = new int[keys][];
+    var presentCount = 0;
+    for (var slot = 0; slot < keys; slot++) {
+      this.occurrences[slot] = new int[counts[slot]];
+      if (counts[slot] != 0) {
+        presentCount++;
+      }
+    }
+    this.present = new int[presentCount];
+    this.dynamic = new int[dynamicCount];
+    final var sources = new String[parts.length];
+    Arrays.fill(counts, 0);
+    Arrays.fill(last, -1);
+    dynamicCount = 0;
+    for (var index = 0; index < parts.length; index++) {
+      sources[index] = parts[index].source();
+      final var slots = parts[index].slots();
+      if (slots.length != 0) {
+        this.dynamic[dynamicCount++] = index;
+      }
+      for (final var slot : slots) {
+        if (last[slot] != index) {
+          last[slot] = index;
+          this.occurrences[slot][counts[slot]++] = index;
+        }
+      }
+    }
+    this.sources = List.of(sources);
+    presentCount = 0;
+    for (var slot = 0; slot < keys; slot++) {
+      if (this.occurrences[slot].length != 0) {
+        this.present[presentCount++] = slot;
+      }
+    }
+  }
+
+  /**
+   * compiles the given parts.
+   *
+   * @param parts the parts to compile.
+   * @param matcher the matcher to find keys.
+   * @param fixed the count of the keys that are resolved by {@code RpBase#getReplaces()}.
+   *
+   * @return compiled template.
+   */
+  @NotNull
+  static RpTemplate compile(@NotNull final List<String> parts, @NotNull final RpMatcher matcher, final int fixed) {
+    final var segments = new RpSegments[parts.size()];
+    for (var index = 0; index < segments.length; index++) {
+      segments[index] = RpSegments.parse(parts.get(index), matcher);
+    }
+    return new RpTemplate(matcher, fixed, segments, null, 0);
+  }
+
+  /**
+   * creates a template of the given parts that were parsed before.
+   *
+   * @param matcher the matcher that parsed the parts.
+   * @param fixed the count of the keys that are resolved by {@code RpBase#getReplaces()}.
+   * @param parts the parts to create.
+   *
+   * @return template.
+   */
+  @NotNull
+  static RpTemplate of(@NotNull final RpMatcher matcher, final int fixed, @NotNull final RpSegments[] parts) {
+    return new RpTemplate(matcher, fixed, parts, null, 0);
+  }
+
+  /**
+   * creates a template that escapes the values with the given escapes.
+   * <p>
+   * the literals are validated once, here, the values are escaped when they're resolved.
+   *
+   * @param escapes the escapes, indexed by slot, {@code null} to not escape.
+   *
+   * @return escaping template, {@code this} if the escapes are the same.
+   *
+   * @throws IllegalArgumentException if an escaped placeholder is out of the context of its escape.
+   */
+  @NotNull
+  RpTemplate escape(@Nullable final RpEscape[] escapes) {
+    if (Arrays.equals(this.escapes, escapes)) {
+      return this;
+    }
+    if (escapes != null) {
+      final var keys = this.keys();
+      for (final var part : this.parts) {
+        part.validate(escapes, keys);
+      }
+    }
+    return new RpTemplate(this.matcher, this.fixed, this.parts, escapes, this.nesting);
+  }
+
+  /**
+   * creates a template that resolves the placeholders in the values up to the given depth.
+   *
+   * @param nesting the maximum depth of the placeholders in the values, {@code 0} to not resolve them.
+   *
+   * @return nesting template, {@code this} if the depth is the same.
+   */
+  @NotNull
+  RpTemplate nest(final int nesting) {
+    if (this.nesting == nesting) {
+      return this;
+    }
+    return new RpTemplate(this.matcher, this.fixed, this.parts, this.escapes, nesting);
+  }
+
+  /**
+   * inlines the constant values of the given replaces into the literals of the template.
+   * <p>
+   * only the replaces marked by {@link RpValue#ofConstant(Supplier)} are inlined, each of them is resolved once and
+   * escaped before it's inlined. a constant that has placeholders in it is not inlined if the template resolves
+   * them.
+   *
+   * @param fixed the replaces of the instance.
+   *
+   * @return folded template, {@code this} if no key of the template is constant.
+   */
+  @NotNull
+  RpTemplate fold(@NotNull final Map<String, Supplier<String>> fixed) {
+    final var keys = this.keys();
+    final var constant = new boolean[keys.length];
+    RpValues values = null;
+    for (final var slot : this.present) {
+      if (slot >= this.fixed) {
+        continue;
+      }
+      final var supplier = fixed.get(keys[slot]);
+      if (supplier instanceof RpValue && ((RpValue) supplier).isConstant()) {
+        if (values == null) {
+          values = this.values();
+        }
+        values.set(slot, supplier);
+        constant[slot] = this.nesting == 0 || !values.isText(slot)
+          || this.matcher.find(values.text(slot), 0, new int[2]) == -1;
+      }
+    }
+    if (values == null) {
+      return this;
+    }
+    final var parts = new RpSegments[this.parts.length];
+    for (var index = 0; index < parts.length; index++) {
+      parts[index] = this.parts[index].fold(values, constant);
+    }
+    return new RpTemplate(this.matcher, this.fixed, parts, this.escapes, this.nesting);
+  }
+
+  /**
+   * resolves the values of the keys that occur in the template.
+   * <p>
+   * only the suppliers of the keys that occur in the template are called, each of them once.
+   * a key that has no supplier resolves to itself, an {@link RpValue} resolves without a temporary text.
+   *
+   * @param fixed the replaces of the instance.
+   * @param replaces the replaces of the build.
+   *
+   * @return resolved values, indexed by key slot.
+   */
+  @NotNull
+  RpValues resolve(@NotNull final Map<String, Supplier<String>> fixed,
+                   @NotNull final Map<String, Supplier<String>> replaces) {
+    return this.resolve(fixed, replaces, null, null);
+  }
+
+  /**
+   * resolves the values of the keys that occur in the template, reports the time spent in each supplier.
+   *
+   * @param fixed the replaces of the instance.
+   * @param replaces the replaces of the build.
+   * @param listener the listener to report, {@code null} to not measure.
+   * @param id the id of the template.
+   *
+   * @return resolved values, indexed by key slot.
+   */
+  @NotNull
+  RpValues resolve(@NotNull final Map<String, Supplier<String>> fixed,
+                   @NotNull final Map<String, Supplier<String>> replaces, @Nullable final RpListener listener,
+                   @Nullable final String id) {
+    final var keys = this.keys();
+    final var values = this.values();
+    if (this.nesting > 0) {
+      final var nesting = new RpNesting(this.matcher, this.nesting,
+        slot -> slot < this.fixed ? fixed.get(keys[slot]) : replaces.get(keys[slot]), listener, id);
+      for (final var slot : this.present) {
+        nesting.expand(values, slot);
+      }
+      return values;
+    }
+    for (final var slot : this.present) {
+      final var key = keys[slot];
+      final var supplier = slot < this.fixed ? fixed.get(key) : replaces.get(key);
+      RpTemplate.resolve(values, slot, key, supplier, listener, id);
+    }
+    return values;
+  }
+
+  /**
+   * resolves the values of the keys that occur in the template concurrently.
+   * <p>
+   * every supplier runs as a separate task on the given executor, an {@link RpFallback} is bounded by its timeout.
+   * the time spent in each supplier call is reported from the task that calls it.
+   *
+   * @param fixed the replaces of the instance.
+   * @param replaces the replaces of the build.
+   * @param executor the executor to run the suppliers.
+   * @param listener the listener to report, {@code null} to not measure.
+   * @param id the id of the template.
+   *
+   * @return a future of resolved values, indexed by key slot.
+   */
+  @NotNull
+  CompletableFuture<RpValues> resolveAsync(@NotNull final Map<String, Supplier<String>> fixed,
+                                           @NotNull final Map<String, Supplier<String>> replaces,
+                                           @NotNull final Executor executor, @Nullable final RpListener listener,
+                                           @Nullable final String id) {
+    final var keys = this.keys();
+    final var values = this.values();
+    final var slots = new int[this.present.length];
+    @SuppressWarnings("unchecked") final var futures = (CompletableFuture<RpValues>[])
+      new CompletableFuture<?>[this.present.length];
+    var count = 0;
+    for (final var slot : this.present) {
+      final var key = keys[slot];
+      final var supplier = slot < this.fixed ? fixed.get(key) : replaces.get(key);
+      if (supplier == null) {
+        values.setText(slot, key);
+        continue;
+      }
+      slots[count] = slot;
+      futures[count++] = supplier instanceof RpFallback
+        ? ((RpFallback) supplier).resolveAsync(key, executor, listener, id)
+        : CompletableFuture.supplyAsync(() -> RpTemplate.resolve(key, supplier, listener, id), executor);
+    }
+    final var size = count;
+    return CompletableFuture.allOf(Arrays.copyOf(futures, size)).thenApply(ignored -> {
+      if (this.nesting > 0) {
+        final var nesting = new RpNesting(this.matcher, this.nesting,
+          slot -> slot < this.fixed ? fixed.get(keys[slot]) : replaces.get(keys[slot]), listener, id);
+        for (var index = 0; index < size; index++) {
+          nesting.resolved(slots[index], futures[index].join(), 0);
+        }
+        for (final var slot : this.present) {
+          nesting.expand(values, slot);
+        }
+        return values;
+      }
+      for (var index = 0; index < size; index++) {
+        values.set(slots[index], futures[index].join(), 0);
+      }
+      return values;
+    });
+  }
+
+  /**
+   * resolves the values of the keys that occur in the template by slot, reports the time spent in each supplier.
+   * <p>
+   * values that are set on the context directly are used as they are, the rest are resolved into the context.
+   *
+   * @param context the context of the build.
+   * @param listener the listener to report, {@code null} to not measure.
+   * @param id the id of the template.
+   *
+   * @return resolved values, indexed by key slot.
+   *
+   * @throws IllegalArgumentException if the context was not created for the keys and the escapes of the template.
+   */
+  @NotNull
+  RpValues resolve(@NotNull final RpContext context, @Nullable final RpListener listener,
+                   @Nullable final String id) {
+    final var keys = this.keys();
+    final var values = context.values(keys, this.escapes);
+    if (this.nesting > 0) {
+      final var nesting = new RpNesting(this.matcher, this.nesting, context::supplier, listener, id);
+      for (var slot = 0; slot < keys.length; slot++) {
+        if (context.isSet(slot)) {
+          nesting.fixed(slot, values);
+        }
+      }
+      for (final var slot : this.present) {
+        if (!context.isSet(slot)) {
+          nesting.expand(values, slot);
+        }
+      }
+      return values;
+    }
+    for (final var slot : this.present) {
+      if (!context.isSet(slot)) {
+        RpTemplate.resolve(values, slot, keys[slot], context.supplier(slot), listener, id);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * resolves the value of the given key into a single slot.
+   *
+   * @param key the key to resolve.
+   * @param supplier the supplier to resolve.
+   * @param listener the listener to report, {@code null} to not measure.
+   * @param id the id of the template.
+   *
+   * @return resolved value at slot {@code 0}.
+   */
+  @NotNull
+  static RpValues resolve(@NotNull final String key, @NotNull final Supplier<String> supplier,
+                          @Nullable final RpListener listener, @Nullable final String id) {
+    final var values = new RpValues(1);
+    RpTemplate.resolve(values, 0, key, supplier, listener, id);
+    return values;
+  }
+
+  /**
+   * resolves the value of the given slot.
+   *
+   * @param values the values to resolve.
+   * @param slot the slot to resolve.
+   * @param key the key of the slot.
+   * @param supplier the supplier of the slot, {@code null} to resolve the key itself.
+   * @param listener the listener to report, {@code null} to not measure.
+   * @param id the id of the template.
+   */
+  static void resolve(@NotNull final RpValues values, final int slot, @NotNull final String key,
+                      @Nullable final Supplier<String> supplier, @Nullable final RpListener listener,
+                      @Nullable final String id) {
+    if (supplier == null) {
+      values.setText(slot, key);
+      return;
+    }
+    final var start = listener == null ? 0L : System.nanoTime();
+    values.set(slot, supplier);
+    if (listener != null) {
+      listener.onSupplier(id, key, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * renders the template with the given values straight into the given sink.
+   *
+   * @param sink the sink to write.
+   * @param separator the separator to write between the parts.
+   * @param values the values to render, indexed by key slot.
+   *
+   * @throws IOException if the sink throws an I/O error.
+   */
+  void renderTo(@NotNull final Appendable sink, @NotNull final CharSequence separator,
+                @NotNull final RpValues values) throws IOException {
+    for (var index = 0; index < this.parts.length; index++) {
+      if (index > 0) {
+        sink.append(separator);
+      }
+      this.parts[index].renderTo(sink, values);
+    }
+  }
+
+  /**
+   * renders the template with the given values into the given buffer as UTF-8.
+   * <p>
+   * nothing is written if the buffer does not have enough space.
+   *
+   * @param buffer the buffer to write.
+   * @param separator the separator to write between the parts.
+   * @param values the values to render, indexed by key slot.
+   *
+   * @throws BufferOverflowException if the buffer does not have enough space.
+   */
+  void encodeTo(@NotNull final ByteBuffer buffer, @NotNull final CharSequence separator,
+                @NotNull final RpValues values) {
+    if (buffer.remaining() < this.encodedLength(separator, values)) {
+      throw new BufferOverflowException();
+    }
+    for (var index = 0; index < this.parts.length; index++) {
+      if (index > 0) {
+        RpUtf8.encode(separator, buffer);
+      }
+      this.parts[index].encodeTo(buffer, values);
+    }
+  }
+
+  /**
+   * renders the template with the given values into the given channel as UTF-8.
+   *
+   * @param channel the channel to write.
+   * @param separator the separator to write between the parts.
+   * @param values the values to render, indexed by key slot.
+   *
+   * @return written byte count.
+   *
+   * @throws IOException if the channel throws an I/O error.
+   */
+  int encodeTo(@NotNull final WritableByteChannel channel, @NotNull final CharSequence separator,
+               @NotNull final RpValues values) throws IOException {
+    final var buffer = ByteBuffer.allocate(this.encodedLength(separator, values));
+    this.encodeTo(buffer, separator, values);
+    buffer.flip();
+    var written = 0;
+    while (buffer.hasRemaining()) {
+      written += channel.write(buffer);
+    }
+    return written;
+  }
+
+  /**
+   * calculates the UTF-8 encoded length of the template with the given values.
+   *
+   * @param separator the separator to write between the parts.
+   * @param values the values to render, indexed by key slot.
+   *
+   * @return encoded length.
+   */
+  private int encodedLength(@NotNull final CharSequence separator, @NotNull final RpValues values) {
+    var size = Math.max(0, this.parts.length - 1) * RpUtf8.length(separator);
+    for (final var part : this.parts) {
+      size += part.encodedLength(values);
+    }
+    return size;
+  }
+
+  /**
+   * creates the values of a build, escaped by {@link #escapes}.
+   *
+   * @return a newly created values.
+   */
+  @NotNull
+  private RpValues values() {
+    return new RpValues(this.matcher.keys().length, this.escapes);
+  }
+
+  /**
+   * obtains the escapes.
+   *
+   * @return escapes, {@code null} if no value is escaped.
+   */
+  @Nullable
+  RpEscape[] escapes() {
+    return this.escapes;
+  }
+
+  /**
+   * obtains the fixed.
+   *
+   * @return fixed.
+   */
+  int fixed() {
+    return this.fixed;
+  }
+
+  /**
+   * obtains the keys.
+   *
+   * @return keys.
+   */
+  @NotNull
+  String[] keys() {
+    return this.matcher.keys();
+  }
+
+  /**
+   * obtains the indices of the parts that contain at least one placeholder.
+   *
+   * @return dynamic part indices.
+   */
+  @NotNull
+  int[] dynamic() {
+    return this.dynamic;
+  }
+
+  /**
+   * obtains the indices of the parts that contain the given key slot.
+   *
+   * @param slot the slot to obtain.
+   *
+   * @return part indices.
+   */
+  @NotNull
+  int[] occurrences(final int slot) {
+    return this.occurrences[slot];
+  }
+
+  /**
+   * obtains the sources of the parts.
+   *
+   * @return sources.
+   */
+  @NotNull
+  List<String> sources() {
+    return this.sources;
+  }
+
+  /**
+   * obtains the key slots that occur in the template.
+   *
+   * @return present slots.
+   */
+  @NotNull
+  int[] present() {
+    return this.present;
+  }
+
+  /**
+   * obtains the matcher.
+   *
+   * @return matcher.
+   */
+  @NotNull
+  RpMatcher matcher() {
+    return this.matcher;
+  }
+
+  /**
+   * obtains the part at the given index.
+   *
+   * @param index the index to obtain.
+   *
+   * @return part.
+   */
+  @NotNull
+  RpSegments part(final int index) {
+    return this.parts[index];
+  }
+
+  /**
+   * obtains the count of the parts.
+   *
+   * @return count of the parts.
+   */
+  int size() {
+    return this.parts.length;
+  }
+}
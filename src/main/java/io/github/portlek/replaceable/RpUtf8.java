@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * a class that contains utility methods to encode texts into UTF-8 without intermediate arrays.
+ * <p>
+ * unpaired surrogates are encoded as {@code ?}, the same as {@link String#getBytes(java.nio.charset.Charset)}.
+ */
+final class RpUtf8 {
+
+  /**
+   * the replacement of the malformed characters.
+   */
+  private static final byte REPLACEMENT = '?';
+
+  /**
+   * ctor.
+   */
+  private RpUtf8() {
+  }
+
+  /**
+   * encodes the given text into the given buffer.
+   *
+   * @param text the text to encode.
+   * @param buffer the buffer to encode.
+   */
+  static void encode(@NotNull final CharSequence text, @NotNull final ByteBuffer buffer) {
+    final var length = text.length();
+    for (var index = 0; index < length; index++) {
+      final var current = text.charAt(index);
+      if (current < 0x80) {
+        buffer.put((byte) current);
+      } else if (current < 0x800) {
+        buffer.put((byte) (0xC0 | current >> 6));
+        buffer.put((byte) (0x80 | current & 0x3F));
+      } else if (!Character.isSurrogate(current)) {
+        buffer.put((byte) (0xE0 | current >> 12));
+        buffer.put((byte) (0x80 | current >> 6 & 0x3F));
+        buffer.put((byte) (0x80 | current & 0x3F));
+      } else if (Character.isHighSurrogate(current) && index + 1 < length
+        && Character.isLowSurrogate(text.charAt(index + 1))) {
+        final var codePoint = Character.toCodePoint(current, text.charAt(++index));
+        buffer.put((byte) (0xF0 | codePoint >> 18));
+        buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+        buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+        buffer.put((byte) (0x80 | codePoint & 0x3F));
+      } else {
+        buffer.put(RpUtf8.REPLACEMENT);
+      }
+    }
+  }
+
+  /**
+   * calculates the encoded length of the given text.
+   *
+   * @param text the text to calculate.
+   *
+   * @return encoded length.
+   */
+  static int length(@NotNull final CharSequence text) {
+    final var length = text.length();
+    var size = length;
+    for (var index = 0; index < length; index++) {
+      final var current = text.charAt(index);
+      if (current < 0x80) {
+        continue;
+      }
+      if (current < 0x800) {
+        size++;
+      } else if (!Character.isSurrogate(current)) {
+        size += 2;
+      } else if (Character.isHighSurrogate(current) && index + 1 < length
+        && Character.isLowSurrogate(text.charAt(index + 1))) {
+        size += 2;
+        index++;
+      }
+    }
+    return size;
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * an abstract class of typed replacement values.
+ * <p>
+ * a typed value can be used anywhere a {@code Supplier<String>} is expected, such as
+ * {@link RpBase#replace(String, Supplier)} or the replaces of {@link RpBase#build(java.util.Map)}. the builds
+ * write numbers straight into the output, without converting them into a {@link String} first.
+ */
+public abstract class RpValue implements Supplier<String> {
+
+  /**
+   * ctor.
+   */
+  RpValue() {
+  }
+
+  /**
+   * creates a constant value.
+   * <p>
+   * the supplier is called once, on the first resolve. a compiled instance inlines the value into its template, so
+   * the builds do not resolve it at all.
+   *
+   * @param supplier the supplier to create.
+   *
+   * @return a newly created value.
+   */
+  @NotNull
+  public static RpValue ofConstant(@NotNull final Supplier<String> supplier) {
+    return new RpValue() {
+      /**
+       * the value, {@code null} until it's resolved.
+       */
+      private volatile String value;
+
+      @Override
+      boolean isConstant() {
+        return true;
+      }
+
+      @Override
+      void resolve(@NotNull final RpValues values, final int slot) {
+        values.setText(slot, this.get());
+      }
+
+      @Override
+      public String get() {
+        var value = this.value;
+        if (value == null) {
+          value = supplier.get();
+          this.value = value;
+        }
+        return value;
+      }
+    };
+  }
+
+  /**
+   * creates a floating point value.
+   *
+   * @param supplier the supplier to create.
+   *
+   * @return a newly created value.
+   */
+  @NotNull
+  public static RpValue ofDouble(@NotNull final DoubleSupplier supplier) {
+    return new RpValue() {
+      @Override
+      void resolve(@NotNull final RpValues values, final int slot) {
+        values.setDouble(slot, supplier.getAsDouble());
+      }
+
+      @Override
+      public String get() {
+        return Double.toString(supplier.getAsDouble());
+      }
+    };
+  }
+
+  /**
+   * creates an integral value.
+   *
+   * @param supplier the supplier to create.
+   *
+   * @return a newly created value.
+   */
+  @NotNull
+  public static RpValue ofInt(@NotNull final IntSupplier supplier) {
+    return new RpValue() {
+      @Override
+      void resolve(@NotNull final RpValues values, final int slot) {
+        values.setLong(slot, supplier.getAsInt());
+      }
+
+      @Override
+      public String get() {
+        return Integer.toString(supplier.getAsInt());
+      }
+    };
+  }
+
+  /**
+   * creates an integral value.
+   *
+   * @param supplier the supplier to create.
+   *
+   * @return a newly created value.
+   */
+  @NotNull
+  public static RpValue ofLong(@NotNull final LongSupplier supplier) {
+    return new RpValue() {
+      @Override
+      void resolve(@NotNull final RpValues values, final int slot) {
+        values.setLong(slot, supplier.getAsLong());
+      }
+
+      @Override
+      public String get() {
+        return Long.toString(supplier.getAsLong());
+      }
+    };
+  }
+
+  /**
+   * creates a text value.
+   * <p>
+   * the text, such as a {@link StringBuilder}, is appended as is without converting it into a {@link String}.
+   *
+   * @param supplier the supplier to create.
+   *
+   * @return a newly created value.
+   */
+  @NotNull
+  public static RpValue ofText(@NotNull final Supplier<? extends CharSequence> supplier) {
+    return new RpValue() {
+      @Override
+      void resolve(@NotNull final RpValues values, final int slot) {
+        values.setText(slot, supplier.get());
+      }
+
+      @Override
+      public String get() {
+        return supplier.get().toString();
+      }
+    };
+  }
+
+  /**
+   * checks if the value never changes.
+   *
+   * @return {@code true} if the value can be inlined when the instance is compiled.
+   */
+  boolean isConstant() {
+    return false;
+  }
+
+  /**
+   * resolves the value into the given slot.
+   *
+   * @param values the values to resolve.
+   * @param slot the slot to resolve.
+   */
+  abstract void resolve(@NotNull RpValues values, int slot);
+}
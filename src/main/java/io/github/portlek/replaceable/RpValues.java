@@ -0,0 +1,488 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * a class that represents the resolved replacement values of a single build, indexed by key slot.
+ * <p>
+ * a value is either a text or a number, numbers are written straight into the output without a temporary
+ * {@link String} where the output allows it.
+ */
+final class RpValues {
+
+  /**
+   * the kind of the text values.
+   */
+  private static final byte TEXT = 0;
+
+  /**
+   * the kind of the integral values.
+   */
+  private static final byte LONG = 1;
+
+  /**
+   * the kind of the floating point values.
+   */
+  private static final byte DOUBLE = 2;
+
+  /**
+   * the estimated length of a floating point value.
+   */
+  private static final int DOUBLE_LENGTH = 24;
+
+  /**
+   * the texts.
+   */
+  @NotNull
+  private final CharSequence[] texts;
+
+  /**
+   * the kinds, {@code null} if all values are texts.
+   */
+  @Nullable
+  private byte[] kinds;
+
+  /**
+   * the integral values.
+   */
+  @Nullable
+  private long[] longs;
+
+  /**
+   * the floating point values.
+   */
+  @Nullable
+  private double[] doubles;
+
+  /**
+   * the escapes of the text values, indexed by slot, {@code null} if no value is escaped.
+   */
+  @Nullable
+  private final RpEscape[] escapes;
+
+  /**
+   * ctor.
+   *
+   * @param size the size.
+   */
+  RpValues(final int size) {
+    this(size, null);
+  }
+
+  /**
+   * ctor.
+   *
+   * @param size the size.
+   * @param escapes the escapes.
+   */
+  RpValues(final int size, @Nullable final RpEscape[] escapes) {
+    this.texts = new CharSequence[size];
+    this.escapes = escapes;
+  }
+
+  /**
+   * counts the digits of the given value, including the sign.
+   *
+   * @param value the value to count.
+   *
+   * @return digit count.
+   */
+  private static int digits(final long value) {
+    if (value == Long.MIN_VALUE) {
+      return 20;
+    }
+    var count = value < 0L ? 2 : 1;
+    var remaining = Math.abs(value);
+    while (remaining >= 10L) {
+      remaining /= 10L;
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * compares the given texts by their contents.
+   *
+   * @param first the first to compare.
+   * @param second the second to compare.
+   *
+   * @return {@code true} if the texts have the same contents.
+   */
+  private static boolean equals(@Nullable final CharSequence first, @Nullable final CharSequence second) {
+    if (first == null || second == null) {
+      return first == second;
+    }
+    return first.toString().contentEquals(second);
+  }
+
+  /**
+   * appends the value of the given slot to the given builder.
+   *
+   * @param builder the builder to append.
+   * @param slot the slot to append.
+   */
+  void appendTo(@NotNull final StringBuilder builder, final int slot) {
+    switch (this.kind(slot)) {
+      case RpValues.LONG:
+        builder.append(this.longs[slot]);
+        break;
+      case RpValues.DOUBLE:
+        builder.append(this.doubles[slot]);
+        break;
+      default:
+        builder.append(this.texts[slot]);
+    }
+  }
+
+  /**
+   * appends the value of the given slot to the given sink.
+   *
+   * @param sink the sink to append.
+   * @param slot the slot to append.
+   *
+   * @throws IOException if the sink throws an I/O error.
+   */
+  void appendTo(@NotNull final Appendable sink, final int slot) throws IOException {
+    if (sink instanceof StringBuilder) {
+      this.appendTo((StringBuilder) sink, slot);
+      return;
+    }
+    if (this.kind(slot) != RpValues.LONG || this.longs[slot] == Long.MIN_VALUE) {
+      sink.append(this.text(slot));
+      return;
+    }
+    var value = this.longs[slot];
+    if (value < 0L) {
+      sink.append('-');
+      value = -value;
+    }
+    var divisor = 1L;
+    while (value / divisor >= 10L) {
+      divisor *= 10L;
+    }
+    for (; divisor > 0L; divisor /= 10L) {
+      sink.append((char) ('0' + value / divisor % 10L));
+    }
+  }
+
+  /**
+   * calculates the UTF-8 encoded length of the value of the given slot.
+   *
+   * @param slot the slot to calculate.
+   *
+   * @return encoded length.
+   */
+  int encodedLength(final int slot) {
+    if (this.kind(slot) == RpValues.LONG) {
+      return RpValues.digits(this.longs[slot]);
+    }
+    return RpUtf8.length(this.text(slot));
+  }
+
+  /**
+   * encodes the value of the given slot into the given buffer as UTF-8.
+   *
+   * @param buffer the buffer to encode.
+   * @param slot the slot to encode.
+   */
+  void encodeTo(@NotNull final ByteBuffer buffer, final int slot) {
+    if (this.kind(slot) != RpValues.LONG || this.longs[slot] == Long.MIN_VALUE) {
+      RpUtf8.encode(this.text(slot), buffer);
+      return;
+    }
+    var value = this.longs[slot];
+    if (value < 0L) {
+      buffer.put((byte) '-');
+      value = -value;
+    }
+    var divisor = 1L;
+    while (value / divisor >= 10L) {
+      divisor *= 10L;
+    }
+    for (; divisor > 0L; divisor /= 10L) {
+      buffer.put((byte) ('0' + value / divisor % 10L));
+    }
+  }
+
+  /**
+   * estimates the length of the value of the given slot.
+   *
+   * @param slot the slot to estimate.
+   *
+   * @return estimated length.
+   */
+  int length(final int slot) {
+    switch (this.kind(slot)) {
+      case RpValues.LONG:
+        return RpValues.digits(this.longs[slot]);
+      case RpValues.DOUBLE:
+        return this.texts[slot] == null ? RpValues.DOUBLE_LENGTH : this.texts[slot].length();
+      default:
+        return this.texts[slot].length();
+    }
+  }
+
+  /**
+   * copies the values, so the copy is not affected when the values are set again.
+   * <p>
+   * texts that are not strings are copied by {@link CharSequence#toString()}, so the copy is not affected when a
+   * reused text, such as a {@link StringBuilder}, changes either.
+   *
+   * @return a newly created copy.
+   */
+  @NotNull
+  RpValues copy() {
+    final var copy = new RpValues(this.texts.length, this.escapes);
+    for (var slot = 0; slot < this.texts.length; slot++) {
+      final var text = this.texts[slot];
+      copy.texts[slot] = text == null || text instanceof String ? text : text.toString();
+    }
+    if (this.kinds != null) {
+      copy.kinds = this.kinds.clone();
+    }
+    if (this.longs != null) {
+      copy.longs = this.longs.clone();
+    }
+    if (this.doubles != null) {
+      copy.doubles = this.doubles.clone();
+    }
+    return copy;
+  }
+
+  /**
+   * sets the value of the given slot of the given values.
+   *
+   * @param slot the slot to set.
+   * @param source the values to set.
+   * @param from the slot of the values to set.
+   */
+  void set(final int slot, @NotNull final RpValues source, final int from) {
+    switch (source.kind(from)) {
+      case RpValues.LONG:
+        this.setLong(slot, source.longs[from]);
+        break;
+      case RpValues.DOUBLE:
+        this.setDouble(slot, source.doubles[from]);
+        break;
+      default:
+        this.setText(slot, source.texts[from]);
+    }
+  }
+
+  /**
+   * sets the value of the given supplier, an {@link RpValue} is set without a temporary text.
+   *
+   * @param slot the slot to set.
+   * @param supplier the supplier to set.
+   */
+  void set(final int slot, @NotNull final Supplier<String> supplier) {
+    if (supplier instanceof RpValue) {
+      ((RpValue) supplier).resolve(this, slot);
+    } else {
+      this.setText(slot, supplier.get());
+    }
+  }
+
+  /**
+   * compares the value of the given slot with the value of the same slot of the given values.
+   *
+   * @param slot the slot to compare.
+   * @param values the values to compare.
+   *
+   * @return {@code true} if the values have the same kind and contents.
+   */
+  boolean equals(final int slot, @NotNull final RpValues values) {
+    final var kind = this.kind(slot);
+    if (kind != values.kind(slot)) {
+      return false;
+    }
+    if (kind == RpValues.LONG) {
+      return this.longs[slot] == values.longs[slot];
+    }
+    if (kind == RpValues.DOUBLE) {
+      return Double.compare(this.doubles[slot], values.doubles[slot]) == 0;
+    }
+    return RpValues.equals(this.texts[slot], values.texts[slot]);
+  }
+
+  /**
+   * sets the given floating point value.
+   *
+   * @param slot the slot to set.
+   * @param value the value to set.
+   */
+  void setDouble(final int slot, final double value) {
+    if (this.doubles == null) {
+      this.doubles = new double[this.texts.length];
+    }
+    this.doubles[slot] = value;
+    this.texts[slot] = null;
+    this.kinds()[slot] = RpValues.DOUBLE;
+  }
+
+  /**
+   * sets the given integral value.
+   *
+   * @param slot the slot to set.
+   * @param value the value to set.
+   */
+  void setLong(final int slot, final long value) {
+    if (this.longs == null) {
+      this.longs = new long[this.texts.length];
+    }
+    this.longs[slot] = value;
+    this.texts[slot] = null;
+    this.kinds()[slot] = RpValues.LONG;
+  }
+
+  /**
+   * sets the given text value, escapes it if the slot has an escape.
+   *
+   * @param slot the slot to set.
+   * @param value the value to set.
+   */
+  void setText(final int slot, @NotNull final CharSequence value) {
+    final var escape = this.escapes == null ? null : this.escapes[slot];
+    this.texts[slot] = escape == null ? value : escape.escape(value);
+    if (this.kinds != null) {
+      this.kinds[slot] = RpValues.TEXT;
+    }
+  }
+
+  /**
+   * checks if the value of the given slot is a text, not a number.
+   *
+   * @param slot the slot to check.
+   *
+   * @return {@code true} if the value is a text.
+   */
+  boolean isText(final int slot) {
+    return this.kind(slot) == RpValues.TEXT;
+  }
+
+  /**
+   * obtains the value of the given slot as text.
+   * <p>
+   * a number is converted once and kept.
+   *
+   * @param slot the slot to obtain.
+   *
+   * @return text value.
+   */
+  @NotNull
+  CharSequence text(final int slot) {
+    var text = this.texts[slot];
+    if (text == null) {
+      text = this.kind(slot) == RpValues.LONG
+        ? Long.toString(this.longs[slot])
+        : Double.toString(this.doubles[slot]);
+      this.texts[slot] = text;
+    }
+    return text;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof RpValues)) {
+      return false;
+    }
+    final var values = (RpValues) obj;
+    if (this.texts.length != values.texts.length) {
+      return false;
+    }
+    for (var slot = 0; slot < this.texts.length; slot++) {
+      if (!this.equals(slot, values)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    var hash = 1;
+    for (var slot = 0; slot < this.texts.length; slot++) {
+      final var kind = this.kind(slot);
+      final int element;
+      if (kind == RpValues.LONG) {
+        element = Long.hashCode(this.longs[slot]);
+      } else if (kind == RpValues.DOUBLE) {
+        element = Double.hashCode(this.doubles[slot]);
+      } else {
+        element = this.texts[slot] == null ? 0 : this.texts[slot].toString().hashCode();
+      }
+      hash = 31 * hash + element;
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    final var builder = new StringBuilder("RpValues[");
+    for (var slot = 0; slot < this.texts.length; slot++) {
+      if (slot > 0) {
+        builder.append(", ");
+      }
+      if (this.kind(slot) != RpValues.TEXT || this.texts[slot] != null) {
+        builder.append(this.text(slot));
+      }
+    }
+    return builder.append(']').toString();
+  }
+
+  /**
+   * obtains the kind of the given slot.
+   *
+   * @param slot the slot to obtain.
+   *
+   * @return kind.
+   */
+  private byte kind(final int slot) {
+    return this.kinds == null ? RpValues.TEXT : this.kinds[slot];
+  }
+
+  /**
+   * obtains the kinds, creates them if they're not created yet.
+   *
+   * @return kinds.
+   */
+  @NotNull
+  private byte[] kinds() {
+    if (this.kinds == null) {
+      this.kinds = new byte[this.texts.length];
+    }
+    return this.kinds;
+  }
+}
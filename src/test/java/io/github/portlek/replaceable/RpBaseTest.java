@@ -25,13 +25,19 @@
 
 package io.github.portlek.replaceable;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.hamcrest.core.IsEqual;
-import org.hamcrest.object.HasEqualValues;
 import org.junit.jupiter.api.Test;
 import org.llorllale.cactoos.matchers.Assertion;
 import org.llorllale.cactoos.matchers.HasSize;
@@ -53,6 +59,30 @@ final class RpBaseTest {
         .build(Map.entry("%test%", () -> "1")),
       new IsEqual<>("test 1")
     ).affirm();
+    new Assertion<>(
+      "Couldn't build in a single pass.",
+      RpString.from("%a% %ab%")
+        .regex("%a%", "%ab%")
+        .build(Map.of("%a%", () -> "%ab%", "%ab%", () -> "2")),
+      new IsEqual<>("%ab% 2")
+    ).affirm();
+  }
+
+  @Test
+  void buildSinglePass() {
+    final var original = RpString.from("%prefix% %player%")
+      .replace("%prefix%", () -> "[%player%]")
+      .regex("%player%");
+    new Assertion<>(
+      "Couldn't insert the replacement value as it is.",
+      original.build("%player%", () -> "Bob"),
+      new IsEqual<>("[%player%] Bob")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't expand the key in the replacement value.",
+      original.nested(1).build("%player%", () -> "Bob"),
+      new IsEqual<>("[Bob] Bob")
+    ).affirm();
   }
 
   @Test
@@ -71,6 +101,124 @@ final class RpBaseTest {
     ).affirm();
   }
 
+  @Test
+  void buildAll() {
+    final var replaces = IntStream.range(0, 1000)
+      .<Map<String, Supplier<String>>>mapToObj(index -> Map.of("%id%", () -> String.valueOf(index)))
+      .collect(Collectors.toList());
+    final var built = RpString.from("id: %id%")
+      .regex("%id%")
+      .batchThreshold(100)
+      .buildAll(replaces);
+    new Assertion<>(
+      "Couldn't build the batch in order.",
+      built.get(999),
+      new IsEqual<>("id: 999")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't build the whole batch.",
+      built,
+      new HasSize(1000)
+    ).affirm();
+  }
+
+  @Test
+  void buildAsync() {
+    final var executor = Executors.newFixedThreadPool(3);
+    try {
+      final var latch = new CountDownLatch(3);
+      final Supplier<String> lookup = () -> {
+        latch.countDown();
+        try {
+          return latch.await(5L, TimeUnit.SECONDS) ? "found" : "alone";
+        } catch (final InterruptedException exception) {
+          throw new IllegalStateException(exception);
+        }
+      };
+      final var original = RpString.from("%a% %b% %c% %d%")
+        .regex("%a%", "%b%", "%c%", "%d%");
+      new Assertion<>(
+        "Couldn't run the suppliers concurrently.",
+        original.buildAsync(Map.of(
+          "%a%", lookup,
+          "%b%", lookup,
+          "%c%", lookup,
+          "%d%", RpFallback.of(() -> {
+            throw new IllegalStateException("%d% is down.");
+          }, Duration.ofSeconds(1L), "none")), executor).join(),
+        new IsEqual<>("found found found none")
+      ).affirm();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void buildLazily() {
+    final var calls = new AtomicInteger();
+    final var original = RpString.from("%a% %a% %a%")
+      .replace("%a%", () -> String.valueOf(calls.incrementAndGet()))
+      .replace("%b%", () -> {
+        throw new IllegalStateException("%b% is not in the value.");
+      });
+    new Assertion<>(
+      "Couldn't build lazily.",
+      original.build(),
+      new IsEqual<>("1 1 1")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't call the supplier once.",
+      calls.get(),
+      new IsEqual<>(1)
+    ).affirm();
+  }
+
+  @Test
+  void compile() {
+    final var original = RpString.from("%name% has %money%, %name%!")
+      .regex("%name%")
+      .replace("%money%", () -> "10$")
+      .compile();
+    new Assertion<>(
+      "Couldn't compile the value.",
+      original.isCompiled(),
+      new IsEqual<>(true)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't build the compiled value correctly.",
+      original.build(Map.entry("%name%", () -> "Bob")),
+      new IsEqual<>("Bob has 10$, Bob!")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't drop the compiled value.",
+      original.regex("%rank%").isCompiled(),
+      new IsEqual<>(false)
+    ).affirm();
+  }
+
+  @Test
+  void escape() {
+    final var original = RpString.from("{\"text\":\"%player%: %message%\",\"count\":%count%}")
+      .regex("%player%", "%message%", "%count%")
+      .escape(RpEscape.COMPONENT)
+      .escape("%count%", RpEscape.NONE)
+      .compile();
+    final var replaces = Map.<String, Supplier<String>>of(
+      "%player%", () -> "Bob",
+      "%message%", () -> "\u00a7khi \"all\"",
+      "%count%", RpValue.ofInt(() -> 3));
+    new Assertion<>(
+      "Couldn't escape the inserted values only.",
+      original.build(replaces),
+      new IsEqual<>("{\"text\":\"Bob: hi \\\"all\\\"\",\"count\":3}")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't escape the derived value.",
+      original.value("{\"text\":\"%player%\"}").build("%player%", () -> "\"Bob\""),
+      new IsEqual<>("{\"text\":\"\\\"Bob\\\"\"}")
+    ).affirm();
+  }
+
   @Test
   void getMaps() {
     final var map = (UnaryOperator<String>) s -> s + 1;
@@ -95,6 +243,25 @@ final class RpBaseTest {
     ).affirm();
   }
 
+  @Test
+  void getRegexLive() {
+    final var original = RpString.from("%a% %b%")
+      .regex("%a%")
+      .compile();
+    original.getRegex().add("%b%");
+    new Assertion<>(
+      "Couldn't honour the regex that is added through the getter.",
+      original.build(Map.of("%a%", () -> "A", "%b%", () -> "B")),
+      new IsEqual<>("A B")
+    ).affirm();
+    original.getReplaces().put("%a%", () -> "F");
+    new Assertion<>(
+      "Couldn't honour the replace that is put through the getter.",
+      original.build(Map.of("%b%", () -> "B")),
+      new IsEqual<>("F B")
+    ).affirm();
+  }
+
   @Test
   void getReplaces() {
     final var replaces = new HashMap<String, Supplier<String>>();
@@ -104,7 +271,7 @@ final class RpBaseTest {
     new Assertion<>(
       "Couldn't get the replaces.",
       original.getReplaces(),
-      new HasEqualValues<>(replaces)
+      new IsEqual<>(replaces)
     ).affirm();
   }
 
@@ -130,6 +297,53 @@ final class RpBaseTest {
     ).affirm();
   }
 
+  @Test
+  void memoize() {
+    final var original = RpList.from("%name%", "static")
+      .regex("%name%")
+      .memoize(8);
+    final var first = original.build("%name%", () -> "Bob");
+    new Assertion<>(
+      "Couldn't return the memoized value.",
+      original.build("%name%", () -> "Bob") == first,
+      new IsEqual<>(true)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't build the changed value.",
+      original.build("%name%", () -> "Alice"),
+      new IsEqual<>(List.of("Alice", "static"))
+    ).affirm();
+  }
+
+  @Test
+  void memoizeReused() {
+    final var builder = new StringBuilder("Bob");
+    final var original = RpString.from("%name%")
+      .replace("%name%", RpValue.ofText(() -> builder))
+      .memoize(8);
+    original.build();
+    builder.setLength(0);
+    builder.append("Alice");
+    new Assertion<>(
+      "Couldn't see the change of a reused text.",
+      original.build(),
+      new IsEqual<>("Alice")
+    ).affirm();
+  }
+
+  @Test
+  void pattern() {
+    final var original = RpString.from("visit https://example.com, %player%")
+      .regex("%player%")
+      .pattern("https?://(\\S+?)(,|$)", "[$1]$2")
+      .compile();
+    new Assertion<>(
+      "Couldn't rewrite the value by the pattern.",
+      original.build("%player%", () -> "http://bob.com"),
+      new IsEqual<>("visit [example.com], http://bob.com")
+    ).affirm();
+  }
+
   @Test
   void replace() {
     final var original = RpString.from("")
@@ -173,4 +387,62 @@ final class RpBaseTest {
       new IsEqual<>(expected)
     );
   }
+
+  @Test
+  void valueParent() throws Exception {
+    final var original = RpString.from("%player% joined")
+      .regex("%player%");
+    final var executor = Executors.newFixedThreadPool(4);
+    try {
+      final var derived = IntStream.range(0, 64)
+        .mapToObj(index -> executor.submit(() -> original.value("%player% " + index)))
+        .collect(Collectors.toList());
+      for (var index = 0; index < derived.size(); index++) {
+        new Assertion<>(
+          "Couldn't derive concurrently.",
+          derived.get(index).get(5L, TimeUnit.SECONDS).build("%player%", () -> "Bob"),
+          new IsEqual<>("Bob " + index)
+        ).affirm();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    original.getRegex().add("%world%");
+    new Assertion<>(
+      "Couldn't change the parent after deriving.",
+      original.getRegex(),
+      new IsEqual<>(List.of("%player%", "%world%"))
+    ).affirm();
+  }
+
+  @Test
+  void valueShared() {
+    final var original = RpString.from("%prefix% %player%")
+      .replace("%prefix%", () -> "[a]")
+      .regex("%player%");
+    final var first = original.value("%prefix% first %player%");
+    final var second = original.value("%prefix% second");
+    new Assertion<>(
+      "Couldn't share the replaces.",
+      first.replaces() == second.replaces() && first.replaces() == original.replaces(),
+      new IsEqual<>(true)
+    ).affirm();
+    first.replace("%prefix%", () -> "[b]");
+    original.regex("%world%");
+    new Assertion<>(
+      "Couldn't change the derived instance only.",
+      first.build("%player%", () -> "Bob"),
+      new IsEqual<>("[b] first Bob")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't keep the other derived instance.",
+      second.build(),
+      new IsEqual<>("[a] second")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't keep the regex of the derived instance.",
+      second.getRegex(),
+      new IsEqual<>(List.of("%player%"))
+    ).affirm();
+  }
 }
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpBundleTest {
+
+  @Test
+  void keys() {
+    final var bundle = RpBundle.of(Map.of("join", "joined"));
+    new Assertion<>(
+      "Couldn't list the keys.",
+      bundle.keys(),
+      new IsEqual<>(Set.of("join"))
+    ).affirm();
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> bundle.keys().remove("join"));
+    new Assertion<>(
+      "Couldn't keep the source after a removal through the keys.",
+      bundle.string("join").build(),
+      new IsEqual<>("joined")
+    ).affirm();
+  }
+
+  @Test
+  void list() {
+    final var bundle = RpBundle.of(Map.of("lore", List.of("owner %player%", "rare")),
+      UnaryOperator.identity(), list -> list.regex("%player%"));
+    new Assertion<>(
+      "Couldn't build the list.",
+      bundle.list("lore").build("%player%", () -> "Bob"),
+      new IsEqual<>(List.of("owner Bob", "rare"))
+    ).affirm();
+  }
+
+  @Test
+  void string() {
+    final var bundle = RpBundle.of(Map.of("join", "%player% joined", "quit", "%player% left"),
+      string -> string.regex("%player%"), UnaryOperator.identity());
+    new Assertion<>(
+      "Couldn't create the strings lazily.",
+      bundle.created(),
+      new IsEqual<>(0)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't build the string.",
+      bundle.string("join").build("%player%", () -> "Bob"),
+      new IsEqual<>("Bob joined")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't reuse the created string.",
+      bundle.string("join") == bundle.string("join"),
+      new IsEqual<>(true)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't create only the used string.",
+      bundle.created(),
+      new IsEqual<>(1)
+    ).affirm();
+  }
+
+  @Test
+  void warmUp() {
+    final var bundle = RpBundle.of(Map.of("join", "joined", "quit", "left", "kick", "kicked"));
+    bundle.warmUp(List.of("join", "quit", "unknown")).join();
+    new Assertion<>(
+      "Couldn't warm up the hot set.",
+      bundle.created(),
+      new IsEqual<>(2)
+    ).affirm();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpCacheTest {
+
+  @Test
+  void evict() {
+    final var cache = RpCache.of(10);
+    for (var index = 0; index < 20; index++) {
+      RpString.from("message " + index).compile(cache);
+    }
+    new Assertion<>(
+      "Couldn't bound the cache.",
+      cache.size() <= cache.maximumSize(),
+      new IsEqual<>(true)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't count the evictions.",
+      cache.evictionCount() > 0L,
+      new IsEqual<>(true)
+    ).affirm();
+  }
+
+  @Test
+  void evictFull() {
+    final var cache = RpCache.of(10);
+    for (var index = 0; index < 10; index++) {
+      RpString.from("message " + index).compile(cache);
+    }
+    RpString.from("latest").compile(cache);
+    RpString.from("latest").compile(cache);
+    new Assertion<>(
+      "Couldn't keep the entry that was just added.",
+      cache.hitCount(),
+      new IsEqual<>(1L)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't evict the other entries.",
+      cache.size() < cache.maximumSize(),
+      new IsEqual<>(true)
+    ).affirm();
+  }
+
+  @Test
+  void template() {
+    final var cache = RpCache.of(10);
+    RpString.from("%name% joined").regex("%name%").compile(cache);
+    final var original = RpString.from("%name% joined")
+      .regex("%name%")
+      .compile(cache);
+    new Assertion<>(
+      "Couldn't count the miss.",
+      cache.missCount(),
+      new IsEqual<>(1L)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't count the hit.",
+      cache.hitCount(),
+      new IsEqual<>(1L)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't build the cached template.",
+      original.build("%name%", () -> "Bob"),
+      new IsEqual<>("Bob joined")
+    ).affirm();
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.List;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpContextTest {
+
+  @Test
+  void build() {
+    final var string = RpString.from("%player% has %coins% coins")
+      .regex("%player%", "%coins%")
+      .compile();
+    final var context = string.context();
+    final var player = string.slot("%player%");
+    final var coins = string.slot("%coins%");
+    new Assertion<>(
+      "Couldn't build with the context.",
+      string.build(context.set(player, "Bob").set(coins, 5L)),
+      new IsEqual<>("Bob has 5 coins")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't reuse the context.",
+      string.build(context.set(player, "Ann").set(coins, () -> "many")),
+      new IsEqual<>("Ann has many coins")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't clear the context.",
+      string.build(context.clear()),
+      new IsEqual<>("%player% has %coins% coins")
+    ).affirm();
+    final var list = RpList.from("%coins% coins", "bye")
+      .regex("%coins%");
+    new Assertion<>(
+      "Couldn't build the list with the context.",
+      list.build(list.context().set(list.slot("%coins%"), 1.5)),
+      new IsEqual<>(List.of("1.5 coins", "bye"))
+    ).affirm();
+  }
+
+  @Test
+  void invalidate() {
+    final var string = RpString.from("%player% joined")
+      .regex("%player%");
+    final var context = string.context();
+    string.regex("%world%");
+    Assertions.assertThrows(IllegalArgumentException.class, () -> string.build(context));
+  }
+
+  @Test
+  void invalidateEscape() {
+    final var string = RpString.from("{\"name\": \"%player%\"}")
+      .regex("%player%");
+    final var context = string.context();
+    string.escape(RpEscape.JSON);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> string.build(context));
+  }
+
+  @Test
+  void keep() {
+    final var string = RpString.from("%player% joined")
+      .regex("%player%");
+    final var context = string.context();
+    string.map(value -> value + "!").pattern("joined", "left");
+    new Assertion<>(
+      "Couldn't keep the context after the maps and the patterns changed.",
+      string.build(context.set(string.slot("%player%"), "Bob")),
+      new IsEqual<>("Bob left!")
+    ).affirm();
+  }
+
+  @Test
+  void slot() {
+    final var string = RpString.from("%prefix% %player%")
+      .replace("%prefix%", () -> "[a]")
+      .regex("%player%");
+    final var context = string.context();
+    new Assertion<>(
+      "Couldn't obtain the slot of the replaces.",
+      context.slot("%prefix%"),
+      new IsEqual<>(0)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't obtain the slot of the regex.",
+      string.slot("%player%"),
+      new IsEqual<>(1)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't obtain the slot of an unknown key.",
+      string.freeze().slot("%world%"),
+      new IsEqual<>(-1)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't build the replaces of the instance.",
+      string.build(context.set(1, "Bob")),
+      new IsEqual<>("[a] Bob")
+    ).affirm();
+  }
+}
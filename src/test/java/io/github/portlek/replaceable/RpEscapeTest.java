@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package io.github.portlek.replaceable;
+
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpEscapeTest {
+
+  @Test
+  void component() {
+    new Assertion<>(
+      "Couldn't drop the formatting codes.",
+      RpEscape.COMPONENT.escape("\u00a7cred \"x\"").toString(),
+      new IsEqual<>("red \\\"x\\\"")
+    ).affirm();
+  }
+
+  @Test
+  void html() {
+    new Assertion<>(
+      "Couldn't escape the value.",
+      RpEscape.HTML.escape("<b>'a' & \"b\"</b>").toString(),
+      new IsEqual<>("&lt;b&gt;&#39;a&#39; &amp; &quot;b&quot;&lt;/b&gt;")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't validate the tag.",
+      Assertions.assertThrows(IllegalArgumentException.class, () ->
+        RpString.from("<a %title%>").regex("%title%").escape(RpEscape.HTML).compile()).getMessage(),
+      new IsEqual<>("%title% is not inside HTML text or a quoted attribute value in \"<a %title%>\"")
+    ).affirm();
+  }
+
+  @Test
+  void json() {
+    final var value = "nothing to escape";
+    new Assertion<>(
+      "Couldn't skip the value that has nothing to escape.",
+      RpEscape.JSON.escape(value),
+      new IsSame<>(value)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't escape the value.",
+      RpEscape.JSON.escape("a\"b\\c\nd\u0001").toString(),
+      new IsEqual<>("a\\\"b\\\\c\\nd\\u0001")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't validate the literals.",
+      Assertions.assertThrows(IllegalArgumentException.class, () ->
+        RpString.from("{\"count\":%count%}").regex("%count%").escape(RpEscape.JSON).compile()).getMessage(),
+      new IsEqual<>("%count% is not inside a JSON string in \"{\"count\":%count%}\"")
+    ).affirm();
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpFallbackTest {
+
+  @Test
+  void get() {
+    new Assertion<>(
+      "Couldn't get the value.",
+      RpFallback.of(() -> "value", Duration.ofSeconds(1L), "fallback").get(),
+      new IsEqual<>("value")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't fall back when the supplier throws.",
+      RpFallback.of(() -> {
+        throw new IllegalStateException("down");
+      }, Duration.ofSeconds(1L), "fallback").get(),
+      new IsEqual<>("fallback")
+    ).affirm();
+  }
+
+  @Test
+  void timeout() {
+    final var executor = Executors.newSingleThreadExecutor();
+    try {
+      final var slow = RpFallback.of(() -> {
+        try {
+          Thread.sleep(5000L);
+        } catch (final InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+        return "slow";
+      }, Duration.ofMillis(50L), () -> "fast");
+      new Assertion<>(
+        "Couldn't fall back when the supplier times out.",
+        RpString.from("%value%")
+          .regex("%value%")
+          .buildAsync(Map.of("%value%", slow), executor)
+          .join(),
+        new IsEqual<>("fast")
+      ).affirm();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpFrozenTest {
+
+  @Test
+  void build() {
+    final var original = RpString.from("%name% is %rank%")
+      .regex("%name%")
+      .replace("%rank%", () -> "admin");
+    final var frozen = original.freeze();
+    original.replace("%rank%", () -> "member");
+    new Assertion<>(
+      "Couldn't build the snapshot correctly.",
+      frozen.build("%name%", () -> "Bob"),
+      new IsEqual<>("Bob is admin")
+    ).affirm();
+  }
+
+  @Test
+  void buildConcurrently() throws Exception {
+    final var frozen = RpList.from("%id%", "static")
+      .regex("%id%")
+      .freeze();
+    final var executor = Executors.newFixedThreadPool(4);
+    final var futures = IntStream.range(0, 100)
+      .mapToObj(index -> executor.submit(() -> frozen.build(Map.of("%id%", () -> String.valueOf(index)))))
+      .collect(Collectors.toList());
+    executor.shutdown();
+    executor.awaitTermination(10L, TimeUnit.SECONDS);
+    for (var index = 0; index < futures.size(); index++) {
+      new Assertion<>(
+        "Couldn't build the snapshot concurrently.",
+        futures.get(index).get(),
+        new IsEqual<>(List.of(String.valueOf(index), "static"))
+      ).affirm();
+    }
+  }
+
+  @Test
+  void buildAll() {
+    final var frozen = RpString.from("%id%")
+      .regex("%id%")
+      .batchThreshold(2)
+      .freeze();
+    final var executor = Executors.newFixedThreadPool(2);
+    final var built = frozen.buildAll(List.of(
+      Map.of("%id%", () -> "1"),
+      Map.of("%id%", () -> "2"),
+      Map.of("%id%", () -> "3")), executor);
+    executor.shutdown();
+    new Assertion<>(
+      "Couldn't build the batch on the executor.",
+      built,
+      new IsEqual<>(List.of("1", "2", "3"))
+    ).affirm();
+  }
+
+  @Test
+  void getReplaces() {
+    new Assertion<>(
+      "Couldn't copy the replaces.",
+      RpString.from("").replace("%a%", () -> "a").freeze().getReplaces().size(),
+      new IsEqual<>(1)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't keep the order of the replaces.",
+      List.copyOf(RpString.from("")
+        .replace("%c%", () -> "c")
+        .replace("%a%", () -> "a")
+        .replace("%b%", () -> "b")
+        .freeze()
+        .getReplaces()
+        .keySet()),
+      new IsEqual<>(List.of("%c%", "%a%", "%b%"))
+    ).affirm();
+  }
+}
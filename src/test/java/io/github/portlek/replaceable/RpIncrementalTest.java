@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpIncrementalTest {
+
+  @Test
+  void render() {
+    final var incremental = RpList.from("Sidebar", "coins %coins%", "tps %tps%")
+      .replace("%tps%", () -> "20")
+      .regex("%coins%")
+      .incremental();
+    final var first = incremental.render(Map.of("%coins%", () -> "1"));
+    new Assertion<>(
+      "Couldn't render the first time.",
+      first,
+      new IsEqual<>(List.of("Sidebar", "coins 1", "tps 20"))
+    ).affirm();
+    new Assertion<>(
+      "Couldn't return the previous value.",
+      incremental.render(Map.of("%coins%", () -> "1")),
+      new IsSame<>(first)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't report that nothing changed.",
+      incremental.isChanged(),
+      new IsEqual<>(false)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't render the changed value.",
+      incremental.render(Map.of("%coins%", () -> "2")),
+      new IsEqual<>(List.of("Sidebar", "coins 2", "tps 20"))
+    ).affirm();
+    new Assertion<>(
+      "Couldn't report the changed keys.",
+      incremental.changedKeys(),
+      new IsEqual<>(List.of("%coins%"))
+    ).affirm();
+    new Assertion<>(
+      "Couldn't report the changed line.",
+      incremental.isChanged(1),
+      new IsEqual<>(true)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't report the unchanged line.",
+      incremental.isChanged(2),
+      new IsEqual<>(false)
+    ).affirm();
+  }
+
+  @Test
+  void renderEmpty() {
+    final var incremental = RpList.from(List.of()).incremental();
+    incremental.render();
+    new Assertion<>(
+      "Couldn't count the first render of an empty value as a change.",
+      incremental.isChanged(),
+      new IsEqual<>(true)
+    ).affirm();
+    incremental.render();
+    new Assertion<>(
+      "Couldn't keep the next render of an empty value unchanged.",
+      incremental.isChanged(),
+      new IsEqual<>(false)
+    ).affirm();
+  }
+
+  @Test
+  void renderReused() {
+    final var builder = new StringBuilder("1");
+    final var incremental = RpString.from("v=%v%")
+      .replace("%v%", RpValue.ofText(() -> builder))
+      .incremental();
+    incremental.render();
+    builder.setLength(0);
+    builder.append('2');
+    new Assertion<>(
+      "Couldn't see the change of a reused text.",
+      incremental.render(),
+      new IsEqual<>("v=2")
+    ).affirm();
+  }
+}
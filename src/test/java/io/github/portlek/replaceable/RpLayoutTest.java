@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import org.hamcrest.core.IsEqual;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpLayoutTest {
+
+  @Test
+  void render() {
+    final var lines = new Lines(new String[]{"hi %name%", "bye"})
+      .regex("%name%");
+    new Assertion<>(
+      "Couldn't build with a layout that only splits and joins.",
+      Arrays.asList(lines.build("%name%", () -> "Bob")),
+      new IsEqual<>(List.of("hi Bob", "bye"))
+    ).affirm();
+    new Assertion<>(
+      "Couldn't calculate the size from the parts.",
+      new Lines.Layout().size(new String[]{"ab", "c"}),
+      new IsEqual<>(3L)
+    ).affirm();
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  void replace() {
+    new Assertion<>(
+      "Couldn't replace in every part by default.",
+      Arrays.asList(new Lines(new String[0]).replace(new String[]{"a %b%", "%b%"}, "%b%", "c")),
+      new IsEqual<>(List.of("a c", "c"))
+    ).affirm();
+  }
+
+  /**
+   * an implementation of {@link RpBase} that only provides a layout.
+   */
+  private static final class Lines extends RpBase<Lines, String[]> {
+
+    /**
+     * ctor.
+     *
+     * @param value the value.
+     */
+    private Lines(@NotNull final String[] value) {
+      super(value);
+    }
+
+    @NotNull
+    @Override
+    protected Supplier<Lines> newSelf(@NotNull final String[] value) {
+      return () -> new Lines(value);
+    }
+
+    @NotNull
+    @Override
+    protected RpLayout<String[]> layout() {
+      return new Layout();
+    }
+
+    @NotNull
+    @Override
+    protected Lines self() {
+      return this;
+    }
+
+    /**
+     * a layout that splits the value into its elements.
+     */
+    private static final class Layout extends RpLayout<String[]> {
+
+      @NotNull
+      @Override
+      public List<String> parts(@NotNull final String[] value) {
+        return Arrays.asList(value);
+      }
+
+      @NotNull
+      @Override
+      public String[] join(@NotNull final List<String> parts) {
+        return parts.toArray(String[]::new);
+      }
+    }
+  }
+}
@@ -25,13 +25,46 @@
 
 package io.github.portlek.replaceable;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.Test;
 import org.llorllale.cactoos.matchers.Assertion;
 
 final class RpListTest {
 
+  @Test
+  void build() {
+    final var line = new String("static");
+    final var built = RpList.from(List.of(line, "test %test%"))
+      .regex("%test%")
+      .compile()
+      .build(Map.entry("%test%", () -> "1"));
+    new Assertion<>(
+      "Couldn't build the lines.",
+      built,
+      new IsEqual<>(List.of("static", "test 1"))
+    ).affirm();
+    new Assertion<>(
+      "Couldn't reuse the static line.",
+      built.get(0) == line,
+      new IsEqual<>(true)
+    ).affirm();
+  }
+
+  @Test
+  void buildTo() throws IOException {
+    new Assertion<>(
+      "Couldn't build the lines into the sink.",
+      RpList.from("test %test%", "test")
+        .regex("%test%")
+        .buildTo(new StringBuilder(), ", ", Map.of("%test%", () -> "1"))
+        .toString(),
+      new IsEqual<>("test 1, test")
+    ).affirm();
+  }
+
   @Test
   void from() {
     new Assertion<>(
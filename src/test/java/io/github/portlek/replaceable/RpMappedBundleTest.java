@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package io.github.portlek.replaceable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpMappedBundleTest {
+
+  @Test
+  void list(@TempDir final Path directory) throws IOException {
+    final var file = directory.resolve("messages.bin");
+    RpMappedBundle.write(file, Map.of("lore", List.of("owner %player%", "rare")), List.of("%player%"));
+    final var bundle = RpMappedBundle.open(file);
+    new Assertion<>(
+      "Couldn't build the list.",
+      bundle.list("lore").build("%player%", () -> "Bob"),
+      new IsEqual<>(List.of("owner Bob", "rare"))
+    ).affirm();
+    new Assertion<>(
+      "Couldn't join the lines.",
+      bundle.string("lore").build("%player%", () -> "Bob"),
+      new IsEqual<>("owner Bob\nrare")
+    ).affirm();
+  }
+
+  @Test
+  void open(@TempDir final Path directory) throws IOException {
+    final var file = directory.resolve("messages.bin");
+    Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+    Assertions.assertThrows(IOException.class, () -> RpMappedBundle.open(file));
+  }
+
+  @Test
+  void string(@TempDir final Path directory) throws IOException {
+    final var file = directory.resolve("messages.bin");
+    RpMappedBundle.write(file, Map.of("join", "%player% joined %world%", "quit", "%player% left"),
+      List.of("%player%", "%world%"));
+    final var bundle = RpMappedBundle.open(file, string -> string.replace("%world%", () -> "hub"),
+      list -> list);
+    new Assertion<>(
+      "Couldn't read the size.",
+      bundle.size(),
+      new IsEqual<>(2)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't build the string.",
+      bundle.string("join").build("%player%", () -> "Bob"),
+      new IsEqual<>("Bob joined hub")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't build the string.",
+      bundle.string("quit").build("%player%", () -> "Bob"),
+      new IsEqual<>("Bob left")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't skip the unknown key.",
+      bundle.string("kick"),
+      new IsEqual<>(null)
+    ).affirm();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpMatcherTest {
+
+  @Test
+  void find() {
+    final var matcher = RpMatcher.of("%a%", "%ab%", "b%");
+    final var match = new int[2];
+    new Assertion<>(
+      "Couldn't find the leftmost key.",
+      matcher.find("x %ab% %a%", 0, match),
+      new IsEqual<>(1)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't find the end of the key.",
+      match[1],
+      new IsEqual<>(6)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't find the next key.",
+      matcher.find("x %ab% %a%", match[1], match),
+      new IsEqual<>(0)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't skip the text without keys.",
+      matcher.find("nothing", 0, match),
+      new IsEqual<>(-1)
+    ).affirm();
+  }
+
+  @Test
+  void findLongest() {
+    final var match = new int[2];
+    new Assertion<>(
+      "Couldn't prefer the longest key.",
+      RpMatcher.of("ab", "abcd", "bc").find("abcd", 0, match),
+      new IsEqual<>(1)
+    ).affirm();
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpMetricsTest {
+
+  @Test
+  void onBuild() {
+    final var metrics = RpMetrics.create();
+    final var original = RpString.from("%name% joined")
+      .replace("%name%", () -> "Bob")
+      .id("join")
+      .listener(metrics)
+      .compile();
+    original.build();
+    original.build();
+    final var stats = metrics.stats("join");
+    new Assertion<>(
+      "Couldn't count the builds.",
+      stats.builds(),
+      new IsEqual<>(2L)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't sum the sizes.",
+      stats.size(),
+      new IsEqual<>(20L)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't count the passes.",
+      stats.passes(),
+      new IsEqual<>(2L)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't record the supplier.",
+      stats.suppliers().contains("%name%"),
+      new IsEqual<>(true)
+    ).affirm();
+  }
+
+  @Test
+  void onBuildAsync() {
+    final var metrics = RpMetrics.create();
+    final var original = RpString.from("%name% joined %server%")
+      .replace("%server%", RpFallback.of(() -> "lobby", Duration.ofSeconds(1L), "hub"))
+      .regex("%name%")
+      .id("join")
+      .listener(metrics)
+      .compile();
+    original.buildAsync(Map.of("%name%", () -> "Bob"), Runnable::run).join();
+    final var stats = metrics.stats("join");
+    new Assertion<>(
+      "Couldn't count the asynchronous build.",
+      stats.builds(),
+      new IsEqual<>(1L)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't record the suppliers of the asynchronous build.",
+      stats.suppliers(),
+      new IsEqual<>(Set.of("%name%", "%server%"))
+    ).affirm();
+  }
+
+  @Test
+  void onBuildFolded() {
+    final var metrics = RpMetrics.create();
+    final var original = RpString.from("%name% joined")
+      .map(RpPure.of(String::trim))
+      .map(value -> value + "!")
+      .regex("%name%")
+      .id("join")
+      .listener(metrics)
+      .compile();
+    original.build("%name%", () -> "Bob");
+    new Assertion<>(
+      "Couldn't skip the folded map in the passes.",
+      metrics.stats("join").passes(),
+      new IsEqual<>(3L)
+    ).affirm();
+  }
+
+  @Test
+  void onBuildTo() throws Exception {
+    final var metrics = RpMetrics.create();
+    final var original = RpString.from("%name% joined")
+      .regex("%name%")
+      .id("join")
+      .listener(metrics)
+      .compile();
+    original.buildTo(new StringBuilder(), Map.of("%name%", () -> "Bob"));
+    original.buildTo(ByteBuffer.allocate(64), Map.of("%name%", () -> "Bob"));
+    final var stats = metrics.stats("join");
+    new Assertion<>(
+      "Couldn't count the builds into a sink.",
+      stats.builds(),
+      new IsEqual<>(2L)
+    ).affirm();
+    new Assertion<>(
+      "Couldn't sum the written sizes.",
+      stats.size(),
+      new IsEqual<>(20L)
+    ).affirm();
+  }
+
+  @Test
+  void percentile() {
+    final var metrics = RpMetrics.create();
+    metrics.onBuild(null, 100L, 1L, 1);
+    metrics.onBuild(null, 1000L, 1L, 1);
+    new Assertion<>(
+      "Couldn't estimate the percentile.",
+      metrics.stats(null).percentile(1.0),
+      new IsEqual<>(1024L)
+    ).affirm();
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package io.github.portlek.replaceable;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpNestingTest {
+
+  @Test
+  void cycle() {
+    final var original = RpString.from("%prefix%")
+      .regex("%prefix%", "%color%")
+      .nested(8);
+    new Assertion<>(
+      "Couldn't report the cycle.",
+      Assertions.assertThrows(IllegalStateException.class, () -> original.build(Map.of(
+        "%prefix%", () -> "[%color%]",
+        "%color%", () -> "%prefix%"))).getMessage(),
+      new IsEqual<>("placeholders refer to each other: %prefix% -> %color% -> %prefix%")
+    ).affirm();
+  }
+
+  @Test
+  void cycleDeep() {
+    final var original = RpString.from("%a%")
+      .regex("%a%", "%b%", "%c%")
+      .nested(1);
+    new Assertion<>(
+      "Couldn't keep the cycle that is not expanded.",
+      original.build(Map.of(
+        "%a%", () -> "%b%",
+        "%b%", () -> "%c%",
+        "%c%", () -> "%b%")),
+      new IsEqual<>("%c%")
+    ).affirm();
+  }
+
+  @Test
+  void depth() {
+    final var original = RpString.from("%a%")
+      .regex("%a%", "%b%", "%c%", "%d%")
+      .nested(2)
+      .compile();
+    new Assertion<>(
+      "Couldn't stop at the depth.",
+      original.build(Map.of(
+        "%a%", () -> "a%b%",
+        "%b%", () -> "b%c%",
+        "%c%", () -> "c%d%",
+        "%d%", () -> "d")),
+      new IsEqual<>("abc%d%")
+    ).affirm();
+  }
+
+  @Test
+  void expand() {
+    final var calls = new AtomicInteger();
+    final var original = RpString.from("%rank_prefix% %player%: %color%hi")
+      .regex("%rank_prefix%", "%player%", "%color%")
+      .nested(4)
+      .compile();
+    final var replaces = Map.<String, Supplier<String>>of(
+      "%rank_prefix%", () -> "[%color%Admin]",
+      "%player%", () -> "%color%Bob",
+      "%color%", () -> {
+        calls.incrementAndGet();
+        return "&c";
+      });
+    new Assertion<>(
+      "Couldn't expand the nested placeholders.",
+      original.build(replaces),
+      new IsEqual<>("[&cAdmin] &cBob: &chi")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't resolve the shared value once.",
+      calls.get(),
+      new IsEqual<>(1)
+    ).affirm();
+  }
+
+  @Test
+  void lazy() {
+    final var calls = new AtomicInteger();
+    final var original = RpString.from("%a%")
+      .regex("%a%", "%b%", "%c%")
+      .nested(1);
+    new Assertion<>(
+      "Couldn't insert the value that is deeper than the depth.",
+      original.build(Map.of(
+        "%a%", () -> "x %b%",
+        "%b%", () -> "%c%",
+        "%c%", () -> String.valueOf(calls.incrementAndGet()))),
+      new IsEqual<>("x %c%")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't skip the supplier that is deeper than the depth.",
+      calls.get(),
+      new IsEqual<>(0)
+    ).affirm();
+  }
+
+  @Test
+  void self() {
+    new Assertion<>(
+      "Couldn't insert a value that contains its own key.",
+      RpString.from("hi %player%")
+        .regex("%player%")
+        .nested(1)
+        .build("%player%", () -> "%player%"),
+      new IsEqual<>("hi %player%")
+    ).affirm();
+  }
+}
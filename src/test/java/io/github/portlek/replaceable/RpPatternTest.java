@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpPatternTest {
+
+  @Test
+  void apply() {
+    final var patterns = List.of(
+      RpPattern.of(Pattern.compile("(https?)://(\\S+)"), "<$1:$2>"),
+      RpPattern.of(Pattern.compile("(?<word>bad)"), "\\$${word}"));
+    final var text = "bad link http://a.com";
+    new Assertion<>(
+      "Couldn't rewrite like String#replaceAll.",
+      RpPattern.apply(patterns, List.of(text)),
+      new IsEqual<>(List.of(text
+        .replaceAll("(https?)://(\\S+)", "<$1:$2>")
+        .replaceAll("(?<word>bad)", "\\$${word}")))
+    ).affirm();
+  }
+
+  @Test
+  void of() {
+    Assertions.assertThrows(IllegalArgumentException.class,
+      () -> RpPattern.of(Pattern.compile("(a)"), "$2"));
+    Assertions.assertThrows(IllegalArgumentException.class,
+      () -> RpPattern.of(Pattern.compile("(a)"), "a\\"));
+    Assertions.assertThrows(IllegalArgumentException.class,
+      () -> RpPattern.of(Pattern.compile("(?<word>a)"), "${other}"));
+    Assertions.assertThrows(IllegalArgumentException.class,
+      () -> RpPattern.of(Pattern.compile("\\(?<word>a\\)"), "${word}"));
+    Assertions.assertThrows(IllegalArgumentException.class,
+      () -> RpPattern.of(Pattern.compile("[(?<word>a)]"), "${word}"));
+  }
+}
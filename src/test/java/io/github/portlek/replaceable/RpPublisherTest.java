@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpPublisherTest {
+
+  @Test
+  void request() throws Exception {
+    final var scheduler = Executors.newSingleThreadScheduledExecutor();
+    final var values = new CopyOnWriteArrayList<String>();
+    final var failed = new CompletableFuture<Throwable>();
+    try (var publisher = RpString.from("coins 0").publish(Duration.ofMillis(1L), scheduler)) {
+      publisher.subscribe(new Flow.Subscriber<>() {
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+          subscription.request(0L);
+          subscription.request(1L);
+        }
+
+        @Override
+        public void onNext(final String item) {
+          values.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+          failed.complete(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+          failed.complete(null);
+        }
+      });
+      new Assertion<>(
+        "Couldn't signal the invalid request.",
+        failed.get(5L, TimeUnit.SECONDS) instanceof IllegalArgumentException,
+        new IsEqual<>(true)
+      ).affirm();
+      Thread.sleep(50L);
+    } finally {
+      scheduler.shutdownNow();
+    }
+    new Assertion<>(
+      "Couldn't stop emitting after the invalid request.",
+      values,
+      new IsEqual<>(List.of())
+    ).affirm();
+  }
+
+  @Test
+  void subscribe() throws Exception {
+    final var scheduler = Executors.newSingleThreadScheduledExecutor();
+    final var coins = new AtomicInteger();
+    final var values = new CopyOnWriteArrayList<String>();
+    final var first = new CompletableFuture<Void>();
+    final var completed = new CompletableFuture<Void>();
+    try (var publisher = RpString.from("coins %coins%")
+      .replace("%coins%", () -> String.valueOf(coins.get()))
+      .publish(Duration.ofMillis(1L), scheduler)) {
+      publisher.subscribe(new Flow.Subscriber<>() {
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+          subscription.request(1L);
+        }
+
+        @Override
+        public void onNext(final String item) {
+          values.add(item);
+          first.complete(null);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+          completed.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+          completed.complete(null);
+        }
+      });
+      first.get(5L, TimeUnit.SECONDS);
+      coins.set(10);
+      Thread.sleep(50L);
+    } finally {
+      scheduler.shutdownNow();
+    }
+    completed.get(5L, TimeUnit.SECONDS);
+    new Assertion<>(
+      "Couldn't emit only the requested values.",
+      values,
+      new IsEqual<>(List.of("coins 0"))
+    ).affirm();
+  }
+}
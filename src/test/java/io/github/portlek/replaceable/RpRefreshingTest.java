@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpRefreshingTest {
+
+  @Test
+  void get() {
+    final var calls = new AtomicInteger();
+    final var value = RpRefreshing.of(() -> String.valueOf(calls.incrementAndGet()), Duration.ofHours(1L),
+      Runnable::run);
+    final var original = RpString.from("%value% %value%")
+      .replace("%value%", value);
+    original.build();
+    new Assertion<>(
+      "Couldn't cache the value.",
+      original.build(),
+      new IsEqual<>("1 1")
+    ).affirm();
+    value.invalidate();
+    new Assertion<>(
+      "Couldn't invalidate the value.",
+      value.get(),
+      new IsEqual<>("2")
+    ).affirm();
+  }
+
+  @Test
+  void refresh() {
+    final var calls = new AtomicInteger();
+    final var submitted = new Runnable[1];
+    final Executor executor = command -> submitted[0] = command;
+    final var value = RpRefreshing.of(() -> String.valueOf(calls.incrementAndGet()), Duration.ZERO, executor);
+    new Assertion<>(
+      "Couldn't load the value on the first read.",
+      value.get(),
+      new IsEqual<>("1")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't return the last value while refreshing.",
+      value.get(),
+      new IsEqual<>("1")
+    ).affirm();
+    submitted[0].run();
+    new Assertion<>(
+      "Couldn't refresh the value in the background.",
+      value.get(),
+      new IsEqual<>("2")
+    ).affirm();
+  }
+}
@@ -25,12 +25,46 @@
 
 package io.github.portlek.replaceable;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.Test;
 import org.llorllale.cactoos.matchers.Assertion;
 
 final class RpStringTest {
 
+  @Test
+  void buildTo() throws IOException {
+    final var writer = new StringWriter();
+    RpString.from("test %test%")
+      .regex("%test%")
+      .buildTo(writer, Map.of("%test%", () -> "1"));
+    new Assertion<>(
+      "Couldn't build into the sink.",
+      writer.toString(),
+      new IsEqual<>("test 1")
+    ).affirm();
+  }
+
+  @Test
+  void buildToBuffer() {
+    final var buffer = RpString.from("ğ %test%")
+      .regex("%test%")
+      .compile()
+      .buildTo(ByteBuffer.allocate(16), Map.of("%test%", () -> "ü1"))
+      .flip();
+    final var bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    new Assertion<>(
+      "Couldn't build into the buffer.",
+      new String(bytes, StandardCharsets.UTF_8),
+      new IsEqual<>("ğ ü1")
+    ).affirm();
+  }
+
   @Test
   void from() {
     new Assertion<>(
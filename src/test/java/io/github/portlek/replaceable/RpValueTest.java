@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Hasan Demirtaş
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.github.portlek.replaceable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Assertion;
+
+final class RpValueTest {
+
+  @Test
+  void build() {
+    new Assertion<>(
+      "Couldn't build the typed values.",
+      RpString.from("%x% %y% %z% %name%")
+        .replace("%x%", RpValue.ofInt(() -> -12))
+        .replace("%y%", RpValue.ofLong(() -> 3_000_000_000L))
+        .replace("%z%", RpValue.ofDouble(() -> 0.5))
+        .replace("%name%", RpValue.ofText(() -> new StringBuilder("Bob")))
+        .build(),
+      new IsEqual<>("-12 3000000000 0.5 Bob")
+    ).affirm();
+  }
+
+  @Test
+  void buildTo() throws IOException {
+    new Assertion<>(
+      "Couldn't build the typed values into the sink.",
+      RpString.from("ping: %ping%")
+        .regex("%ping%")
+        .buildTo(new StringWriter(), Map.of("%ping%", RpValue.ofInt(() -> 120)))
+        .toString(),
+      new IsEqual<>("ping: 120")
+    ).affirm();
+  }
+
+  @Test
+  void get() {
+    new Assertion<>(
+      "Couldn't get the typed value as text.",
+      RpValue.ofDouble(() -> 1.25).get(),
+      new IsEqual<>("1.25")
+    ).affirm();
+  }
+
+  @Test
+  void ofConstant() {
+    final var calls = new AtomicInteger();
+    final var original = RpString.from("%server% %player%")
+      .replace("%server%", RpValue.ofConstant(() -> "[Hub " + calls.incrementAndGet() + "]"))
+      .regex("%player%")
+      .compile();
+    original.build("%player%", () -> "Bob");
+    new Assertion<>(
+      "Couldn't inline the constant value.",
+      original.build("%player%", () -> "Ann"),
+      new IsEqual<>("[Hub 1] Ann")
+    ).affirm();
+    new Assertion<>(
+      "Couldn't resolve the constant value once.",
+      calls.get(),
+      new IsEqual<>(1)
+    ).affirm();
+  }
+}